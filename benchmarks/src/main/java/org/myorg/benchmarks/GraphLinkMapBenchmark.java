@@ -0,0 +1,68 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.myorg.GraphLink.GraphLinkMap;
+import org.myorg.OutlinkList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/// Measures GraphLinkMap.map, which reads the title and the outlinks of every web page of the input.
+/// The score is the number of web pages read per second
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphLinkMapBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	public int linksPerPage;
+
+	@Param({ "1000" })
+	public int pages;
+
+	private Text[] lines;
+	private int next;
+	private final LongWritable offset = new LongWritable();
+	private final GraphLinkMap mapper = new GraphLinkMap();
+	private Mapper<LongWritable, Text, Text, OutlinkList>.Context context;
+
+	@Setup(Level.Trial)
+	public void setup(Blackhole blackhole) {
+		SyntheticPages synthetic = new SyntheticPages(42, pages * 10);
+		lines = new Text[pages];
+		for (int i = 0; i < pages; i++)
+			lines[i] = synthetic.webPage(i, linksPerPage);
+		context = StubContexts.mapContext(new Configuration(), blackhole);
+	}
+
+	/// Every call maps the next web page, going round the generated pages
+	@Benchmark
+	public void map() throws IOException, InterruptedException {
+		offset.set(next);
+		mapper.map(offset, lines[next], context);
+		next = next + 1 == lines.length ? 0 : next + 1;
+	}
+}
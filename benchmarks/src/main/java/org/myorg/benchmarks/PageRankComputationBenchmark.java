@@ -0,0 +1,108 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.myorg.PageRankComputation.PageRankComputationMap;
+import org.myorg.PageRankComputation.PageRankComputationReduce;
+import org.myorg.PageRankNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/// Measures one PageRankComputation iteration on the map side and on the reduce side. The map score
+/// is the number of web pages mapped per second, and the reduce score the number of web pages reduced
+/// per second, each of them receiving fanIn page rank contributions
+public class PageRankComputationBenchmark {
+
+	@State(Scope.Thread)
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@Warmup(iterations = 3, time = 2)
+	@Measurement(iterations = 5, time = 2)
+	@Fork(1)
+	public static class MapBenchmark {
+
+		@Param({ "10", "100", "1000" })
+		public int outlinksPerPage;
+
+		@Param({ "1000" })
+		public int pages;
+
+		private PageRankNode[] nodes;
+		private int next;
+		private final IntWritable pageId = new IntWritable();
+		private final PageRankComputationMap mapper = new PageRankComputationMap();
+		private Mapper<IntWritable, PageRankNode, IntWritable, PageRankNode>.Context context;
+
+		@Setup(Level.Trial)
+		public void setup(Blackhole blackhole) {
+			SyntheticPages synthetic = new SyntheticPages(42, pages * 10);
+			nodes = new PageRankNode[pages];
+			for (int i = 0; i < pages; i++)
+				nodes[i] = synthetic.structure(outlinksPerPage);
+			context = StubContexts.mapContext(new Configuration(), blackhole);
+		}
+
+		@Benchmark
+		public void map() throws IOException, InterruptedException {
+			pageId.set(next);
+			mapper.map(pageId, nodes[next], context);
+			next = next + 1 == nodes.length ? 0 : next + 1;
+		}
+	}
+
+	@State(Scope.Thread)
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@Warmup(iterations = 3, time = 2)
+	@Measurement(iterations = 5, time = 2)
+	@Fork(1)
+	public static class ReduceBenchmark {
+
+		/// Number of page rank contributions received by the web page, ie. its number of inlinks
+		@Param({ "10", "1000", "100000" })
+		public int fanIn;
+
+		/// The graph structure record comes first, as it does when the map output is not combined
+		private List<PageRankNode> values;
+		private final IntWritable pageId = new IntWritable(7);
+		private final PageRankComputationReduce reducer = new PageRankComputationReduce();
+		private Reducer<IntWritable, PageRankNode, IntWritable, PageRankNode>.Context context;
+
+		@Setup(Level.Trial)
+		public void setup(Blackhole blackhole) throws IOException, InterruptedException {
+			SyntheticPages synthetic = new SyntheticPages(42, Math.max(fanIn, 1000));
+			values = new ArrayList<PageRankNode>(fanIn + 1);
+			values.add(synthetic.structure(20));
+			for (int i = 0; i < fanIn; i++)
+				values.add(synthetic.contribution());
+			context = StubContexts.reduceContext(new Configuration(), blackhole, IntWritable.class, PageRankNode.class);
+		}
+
+		@Benchmark
+		public void reduce() throws IOException, InterruptedException {
+			reducer.reduce(pageId, values, context);
+		}
+	}
+}
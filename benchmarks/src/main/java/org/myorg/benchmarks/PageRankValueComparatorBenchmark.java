@@ -0,0 +1,71 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.WritableComparator;
+import org.myorg.PageRankSorting.PageRankValueComparator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/// Measures PageRankSorting.PageRankValueComparator on serialized DoubleWritable page ranks, as the
+/// sort of the map output calls it. The keys are stored one after the other in one byte array, like
+/// in the map output buffer. The score is the number of comparisons per second
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageRankValueComparatorBenchmark {
+
+	private static final int KEY_LENGTH = 8;
+
+	@Param({ "100000" })
+	public int keys;
+
+	private byte[] buffer;
+	private int next;
+	private final PageRankValueComparator comparator = new PageRankValueComparator();
+	private final WritableComparator ascending = WritableComparator.get(DoubleWritable.class);
+
+	@Setup(Level.Trial)
+	public void setup() {
+		SyntheticPages synthetic = new SyntheticPages(42, keys);
+		buffer = new byte[keys * KEY_LENGTH];
+		for (int i = 0; i < keys; i++) {
+			long bits = Double.doubleToLongBits(synthetic.nextRank() * 10);
+			for (int b = 0; b < KEY_LENGTH; b++)
+				buffer[i * KEY_LENGTH + b] = (byte) (bits >>> (56 - 8 * b));
+		}
+	}
+
+	@Benchmark
+	public int compare() {
+		int result = comparator.compare(buffer, next * KEY_LENGTH, KEY_LENGTH, buffer, (next + 1) * KEY_LENGTH, KEY_LENGTH);
+		next = next + 2 >= keys ? 0 : next + 1;
+		return result;
+	}
+
+	/// The raw comparator of DoubleWritable, sorting in ascending order, as a reference
+	@Benchmark
+	public int compareDoubleWritable() {
+		int result = ascending.compare(buffer, next * KEY_LENGTH, KEY_LENGTH, buffer, (next + 1) * KEY_LENGTH, KEY_LENGTH);
+		next = next + 2 >= keys ? 0 : next + 1;
+		return result;
+	}
+}
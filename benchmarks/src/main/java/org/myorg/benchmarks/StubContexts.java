@@ -0,0 +1,134 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg.benchmarks;
+
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.mapred.RawKeyValueIterator;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.StatusReporter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.TaskType;
+import org.apache.hadoop.mapreduce.lib.map.WrappedMapper;
+import org.apache.hadoop.mapreduce.lib.reduce.WrappedReducer;
+import org.apache.hadoop.mapreduce.task.MapContextImpl;
+import org.apache.hadoop.mapreduce.task.ReduceContextImpl;
+import org.apache.hadoop.util.Progress;
+import org.openjdk.jmh.infra.Blackhole;
+
+/// StubContexts builds the Mapper and Reducer contexts handed to the map and reduce functions in the
+/// benchmarks. They are the contexts Hadoop itself uses, built without a running job: every record
+/// written goes to the JMH Blackhole instead of the shuffle or an output file, and the counters are
+/// kept in memory. The reduce functions are called directly with the values of the benchmark, so the
+/// reduce context has no input of its own.
+public class StubContexts {
+
+	private StubContexts() {
+	}
+
+	public static <KI, VI, KO, VO> Mapper<KI, VI, KO, VO>.Context mapContext(Configuration conf, Blackhole blackhole) {
+		MapContextImpl<KI, VI, KO, VO> context = new MapContextImpl<KI, VI, KO, VO>(conf,
+				new TaskAttemptID("benchmark", 0, TaskType.MAP, 0, 0), null, new BlackholeWriter<KO, VO>(blackhole),
+				null, new CounterReporter(), null);
+		return new WrappedMapper<KI, VI, KO, VO>().getMapContext(context);
+	}
+
+	public static <KI, VI, KO, VO> Reducer<KI, VI, KO, VO>.Context reduceContext(Configuration conf, Blackhole blackhole,
+			Class<KI> keyClass, Class<VI> valueClass) throws IOException, InterruptedException {
+		CounterReporter reporter = new CounterReporter();
+		@SuppressWarnings("unchecked")
+		ReduceContextImpl<KI, VI, KO, VO> context = new ReduceContextImpl<KI, VI, KO, VO>(conf,
+				new TaskAttemptID("benchmark", 0, TaskType.REDUCE, 0, 0), new EmptyIterator(),
+				reporter.getCounter("benchmark", "input keys"), reporter.getCounter("benchmark", "input values"),
+				new BlackholeWriter<KO, VO>(blackhole), null, reporter,
+				WritableComparator.get(IntWritable.class, conf), keyClass, valueClass);
+		return new WrappedReducer<KI, VI, KO, VO>().getReducerContext(context);
+	}
+
+	/// Hands every written record to the Blackhole, so the JIT can not drop the work producing it
+	private static class BlackholeWriter<K, V> extends RecordWriter<K, V> {
+
+		private final Blackhole blackhole;
+
+		BlackholeWriter(Blackhole blackhole) {
+			this.blackhole = blackhole;
+		}
+
+		@Override
+		public void write(K key, V value) {
+			blackhole.consume(key);
+			blackhole.consume(value);
+		}
+
+		@Override
+		public void close(TaskAttemptContext context) {
+		}
+	}
+
+	/// Keeps the counters incremented by the tasks in memory
+	private static class CounterReporter extends StatusReporter {
+
+		private final Counters counters = new Counters();
+
+		@Override
+		public Counter getCounter(Enum<?> name) {
+			return counters.findCounter(name);
+		}
+
+		@Override
+		public Counter getCounter(String group, String name) {
+			return counters.findCounter(group, name);
+		}
+
+		@Override
+		public void progress() {
+		}
+
+		@Override
+		public float getProgress() {
+			return 0;
+		}
+
+		@Override
+		public void setStatus(String status) {
+		}
+	}
+
+	private static class EmptyIterator implements RawKeyValueIterator {
+
+		@Override
+		public DataInputBuffer getKey() {
+			return null;
+		}
+
+		@Override
+		public DataInputBuffer getValue() {
+			return null;
+		}
+
+		@Override
+		public boolean next() {
+			return false;
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public Progress getProgress() {
+			return new Progress();
+		}
+	}
+}
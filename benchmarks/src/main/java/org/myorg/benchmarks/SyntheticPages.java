@@ -0,0 +1,80 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg.benchmarks;
+
+import java.util.Random;
+
+import org.apache.hadoop.io.Text;
+import org.myorg.PageRankNode;
+
+/// SyntheticPages builds the inputs of the benchmarks from a fixed seed, so that every run measures
+/// the same records. The web pages look like the lines of the Wiki-Micro Corpus: a <title>, a
+/// <revision> with a <text> holding prose mixed with plain, piped and section links.
+public class SyntheticPages {
+
+	private static final String[] WORDS = { "the", "of", "page", "rank", "graph", "link", "wiki", "article",
+			"history", "science", "city", "river", "was", "is", "in", "and", "a", "by", "from", "with" };
+
+	private final Random random;
+	private final int noOfTitles;
+
+	public SyntheticPages(long seed, int noOfTitles) {
+		this.random = new Random(seed);
+		this.noOfTitles = noOfTitles;
+	}
+
+	/// One input line of a web page with the given number of outlinks
+	public Text webPage(int pageId, int noOfLinks) {
+		StringBuilder sb = new StringBuilder(64 + noOfLinks * 48);
+		sb.append("<title>").append(title(pageId)).append("</title>");
+		sb.append("<id>").append(pageId).append("</id><revision><id>").append(random.nextInt(1 << 30))
+				.append("</id><timestamp>2009-01-01T00:00:00Z</timestamp>");
+		sb.append("<text xml:space=\"preserve\">'''").append(title(pageId)).append("''' ");
+		for (int i = 0; i < noOfLinks; i++) {
+			for (int w = random.nextInt(8); w >= 0; w--)
+				sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+
+			String target = title(random.nextInt(noOfTitles));
+			switch (random.nextInt(4)) {
+			case 0:
+				sb.append("[[").append(target).append('|').append(WORDS[random.nextInt(WORDS.length)]).append("]] ");
+				break;
+			case 1:
+				sb.append("[[").append(target).append("#History]] ");
+				break;
+			default:
+				sb.append("[[").append(target).append("]] ");
+			}
+		}
+		sb.append("</text></revision>");
+		return new Text(sb.toString());
+	}
+
+	/// A graph structure record with the given number of outlink ids
+	public PageRankNode structure(int noOfLinks) {
+		PageRankNode node = new PageRankNode();
+		node.setStructure(random.nextDouble());
+		for (int i = 0; i < noOfLinks; i++)
+			node.addOutlink(random.nextInt(noOfTitles));
+		node.sortOutlinks();
+		node.setOutDegree(noOfLinks + random.nextInt(4));
+		return node;
+	}
+
+	/// A page rank contribution record
+	public PageRankNode contribution() {
+		PageRankNode node = new PageRankNode();
+		node.setContribution(random.nextDouble() / noOfTitles);
+		return node;
+	}
+
+	public double nextRank() {
+		return random.nextDouble();
+	}
+
+	private static String title(int id) {
+		return "Page " + Integer.toString(id, 36) + " (article)";
+	}
+}
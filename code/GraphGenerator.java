@@ -0,0 +1,214 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.conf.Configured;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.util.Tool;
+import org.apache.hadoop.util.ToolRunner;
+
+/// GraphGenerator writes a synthetic corpus in the input format which GraphLinkMap reads, one web page
+/// per line: <title>Page<id></title><revision><text xml:space="preserve">[[Page<t>]] ...</text></revision>
+/// The links follow the R-MAT model, which gives power law in and out degrees like those of the web:
+/// every link picks its source and target page ids one bit at a time, from the highest bit, choosing
+/// the quadrant (source bit, target bit) = (0, 0), (0, 1), (1, 0), (1, 1) with the probabilities a, b,
+/// c, d. The pages are written in page id order, so the links of every page are drawn together: the
+/// number of links of page s is drawn from a Poisson distribution whose mean is its share of the
+/// links under R-MAT, and every target bit is drawn given the source bit of the same level. Every
+/// page draws from its own Random seeded from pagerank.generator.seed and its page id, so the corpus
+/// is the same whatever the number of files it is written to.
+public class GraphGenerator extends Configured implements Tool {
+
+	/// Number of pages, eg: -D pagerank.generator.pages=1000000
+	public static final String PAGES = "pagerank.generator.pages";
+	public static final int DEFAULT_PAGES = 10000;
+
+	/// Average number of links per page, eg: -D pagerank.generator.degree=20
+	public static final String DEGREE = "pagerank.generator.degree";
+	public static final double DEFAULT_DEGREE = 10;
+
+	/// Seed of the generator, eg: -D pagerank.generator.seed=42
+	public static final String SEED = "pagerank.generator.seed";
+
+	/// R-MAT probabilities a, b, c and d, eg: -D pagerank.generator.rmat=0.45,0.15,0.15,0.25
+	/// By default those of the Graph500 benchmark
+	public static final String RMAT = "pagerank.generator.rmat";
+	public static final String DEFAULT_RMAT = "0.57,0.19,0.19,0.05";
+
+	/// Number of files the pages are spread over, eg: -D pagerank.generator.files=8
+	public static final String FILES = "pagerank.generator.files";
+
+	private final int pages;
+	private final double degree;
+	private final long seed;
+	private final double a;
+	private final double b;
+	private final double c;
+	private final double d;
+	private final int levels;
+
+	/// Number of links written by the last call to generate
+	private long links;
+
+	public GraphGenerator() {
+		this(new Configuration());
+	}
+
+	public GraphGenerator(Configuration conf) {
+		super(conf);
+		pages = conf.getInt(PAGES, DEFAULT_PAGES);
+		degree = conf.getDouble(DEGREE, DEFAULT_DEGREE);
+		seed = conf.getLong(SEED, 0);
+		String[] probabilities = conf.get(RMAT, DEFAULT_RMAT).split(",");
+		if (probabilities.length != 4)
+			throw new IllegalArgumentException(RMAT + " holds the 4 probabilities a, b, c and d");
+		double[] p = new double[4];
+		double sum = 0;
+		for (int i = 0; i < 4; i++) {
+			p[i] = Double.parseDouble(probabilities[i].trim());
+			sum += p[i];
+		}
+		a = p[0] / sum;
+		b = p[1] / sum;
+		c = p[2] / sum;
+		d = p[3] / sum;
+
+		int bits = 0;
+		while (bits < 31 && (1L << bits) < pages)
+			bits++;
+		levels = bits;
+	}
+
+	public static void main(String[] args) throws Exception {
+		System.exit(ToolRunner.run(new GraphGenerator(), args));
+	}
+
+	/// Writes the corpus to the output directory given as the only argument
+	@Override
+	public int run(String[] args) throws Exception {
+		GraphGenerator generator = new GraphGenerator(getConf());
+		generator.generate(FileSystem.get(getConf()), new Path(args[0]));
+		return 0;
+	}
+
+	/// Writes the pages to pages-<k>.txt in the given directory, which is created. Returns the number
+	/// of links written
+	public long generate(FileSystem fs, Path directory) throws IOException {
+		System.out.println("JOB: GRAPH GENERATOR ---- STATUS: STARTED");
+		int files = Math.max(1, getConf().getInt(FILES, 1));
+		fs.mkdirs(directory);
+
+		/// Under R-MAT the page ids from pages to 2^levels - 1 would also have links. Their share is
+		/// left out, so the links of the pages which are written add up to pages * degree on average
+		double linksPerShare = degree * pages / shareBelow(pages);
+		links = 0;
+		StringBuilder line = new StringBuilder();
+		for (int file = 0; file < files; file++) {
+			Path path = new Path(directory, String.format("pages-%05d.txt", file));
+			Writer writer = new BufferedWriter(new OutputStreamWriter(fs.create(path, true), StandardCharsets.UTF_8), 1 << 20);
+			try {
+				int last = (int) ((long) pages * (file + 1) / files);
+				for (int page = (int) ((long) pages * file / files); page < last; page++) {
+					line.setLength(0);
+					appendPage(line, page, linksPerShare);
+					writer.write(line.toString());
+				}
+			} finally {
+				writer.close();
+			}
+		}
+		System.out.println("JOB: GRAPH GENERATOR ---- PAGES: " + pages + " LINKS: " + links);
+		System.out.println("JOB: GRAPH GENERATOR ---- STATUS: ENDED");
+		return links;
+	}
+
+	/// Appends the line of one page and its links
+	private void appendPage(StringBuilder line, int page, double linksPerShare) {
+		Random random = new Random(mix(seed * 0x9E3779B97F4A7C15L + page));
+		line.append("<title>Page").append(page).append("</title><revision><text xml:space=\"preserve\">");
+
+		int noOfLinks = poisson(random, linksPerShare * share(page));
+		for (int l = 0; l < noOfLinks; l++) {
+			int target;
+			do {
+				target = drawTarget(random, page);
+			} while (target >= pages);
+			line.append(l == 0 ? "" : " ").append("[[Page").append(target).append("]]");
+		}
+		links += noOfLinks;
+		line.append("</text></revision>\n");
+	}
+
+	/// Share of the links whose source is the given page id, the product over its bits of the
+	/// probability of a source bit 0, a + b, or 1, c + d
+	private double share(int page) {
+		double share = 1;
+		for (int level = levels - 1; level >= 0; level--)
+			share *= ((page >>> level) & 1) == 0 ? a + b : c + d;
+		return share;
+	}
+
+	/// Share of the links whose source is below the given page id. At every bit set in it, all the
+	/// page ids with a 0 at that bit and the same higher bits are below it
+	private double shareBelow(int limit) {
+		if (limit >= (1L << levels))
+			return 1;
+		double below = 0;
+		double prefix = 1;
+		for (int level = levels - 1; level >= 0; level--) {
+			if (((limit >>> level) & 1) == 0) {
+				prefix *= a + b;
+			} else {
+				below += prefix * (a + b);
+				prefix *= c + d;
+			}
+		}
+		return below;
+	}
+
+	/// Draws the target of a link of the given source, one bit at a time given the source bit
+	private int drawTarget(Random random, int source) {
+		int target = 0;
+		for (int level = levels - 1; level >= 0; level--) {
+			boolean sourceBit = ((source >>> level) & 1) != 0;
+			double zero = sourceBit ? c / (c + d) : a / (a + b);
+			if (random.nextDouble() >= zero)
+				target |= 1 << level;
+		}
+		return target;
+	}
+
+	/// Scrambles the seed of a page, since the first numbers drawn by Random from neighbouring seeds
+	/// are correlated. This is the finalizer of SplitMix64
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/// Poisson distributed number with the given mean, counted for small means and taken from the
+	/// normal approximation for large ones
+	private static int poisson(Random random, double mean) {
+		if (mean > 30)
+			return Math.max(0, (int) Math.round(mean + Math.sqrt(mean) * random.nextGaussian()));
+		double limit = Math.exp(-mean);
+		double product = random.nextDouble();
+		int count = 0;
+		while (product > limit) {
+			product *= random.nextDouble();
+			count++;
+		}
+		return count;
+	}
+}
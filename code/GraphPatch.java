@@ -0,0 +1,166 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.Reducer;
+
+/// GraphPatch builds the link graph of an incremental run without reading the whole corpus again. It
+/// takes the graph_link of the earlier run, kept in its state directory, and the changed web pages:
+/// lines in the input format for added and edited pages, and <title>page</title><removed/> lines for
+/// removed pages. The output has the same format and partitioning as the output of GraphLink, so
+/// PageDictionary and all later jobs run on it unchanged.
+public class GraphPatch {
+
+	/// State directory of an earlier run to patch, eg: --incremental state. It holds the graph_link
+	/// and the output of that run
+	public static final String INCREMENTAL_PATH = "pagerank.incremental.path";
+
+	/// Directory where a run keeps its graph_link and its output for a later incremental run, eg:
+	/// -D pagerank.state.path=state
+	public static final String STATE_PATH = "pagerank.state.path";
+
+	/// Names of the graph_link and the output kept in a state directory
+	public static final String STATE_GRAPH_LINK = "graph_link";
+	public static final String STATE_RANKS = "ranks";
+
+	/// Counters of the pages added, edited and removed by the changes
+	public static enum PatchCounter { ADDED, EDITED, REMOVED }
+
+	/// Value of the patch job: the outlinks of a title in the earlier graph, or in the changes
+	public static class PageVersion implements Writable {
+
+		public static final byte OLD = 0;
+		public static final byte CHANGED = 1;
+		public static final byte REMOVED = 2;
+
+		private byte kind;
+		private final OutlinkList outlinks = new OutlinkList();
+
+		public byte getKind() {
+			return kind;
+		}
+
+		public OutlinkList getOutlinks() {
+			return outlinks;
+		}
+
+		public void setKind(byte kind) {
+			this.kind = kind;
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(kind);
+			if (kind != REMOVED)
+				outlinks.write(out);
+		}
+
+		@Override
+		public void readFields(DataInput in) throws IOException {
+			kind = in.readByte();
+			outlinks.clear();
+			if (kind != REMOVED)
+				outlinks.readFields(in);
+		}
+	}
+
+	/// This Mapper class reads the graph_link of the earlier run
+	public static class GraphPatchOldMap extends Mapper<Text, OutlinkList, Text, PageVersion> {
+
+		private final PageVersion version = new PageVersion();
+		private final Text outlink = new Text();
+
+		public void map(Text title, OutlinkList outlinks, Context context) throws IOException, InterruptedException {
+			version.setKind(PageVersion.OLD);
+			version.getOutlinks().clear();
+			for (int i = 0; i < outlinks.size(); i++) {
+				outlinks.get(i, outlink);
+				version.getOutlinks().add(outlink.getBytes(), 0, outlink.getLength());
+			}
+			context.write(title, version);
+		}
+	}
+
+	/// This Mapper class reads the changed web pages, with the same extraction as GraphLinkMap
+	public static class GraphPatchChangeMap extends Mapper<LongWritable, Text, Text, PageVersion> {
+
+		private final Text title = new Text();
+		private final PageVersion version = new PageVersion();
+
+		public void map(LongWritable offset, Text lineText, Context context) throws IOException, InterruptedException {
+			if (!LinkExtractor.extractPage(lineText.getBytes(), lineText.getLength(), title, version.getOutlinks()))
+				return;
+			version.setKind(LinkExtractor.isRemoved(lineText.getBytes(), lineText.getLength())
+					? PageVersion.REMOVED : PageVersion.CHANGED);
+			context.write(title, version);
+		}
+	}
+
+	/// This Reducer class writes the outlinks of every title of the patched corpus. A change replaces
+	/// the earlier version of the page, and a removed page is left out. The titles written are counted
+	/// per reducer for the page ids, as in GraphLinkReduce
+	public static class GraphPatchReduce extends Reducer<Text, PageVersion, Text, OutlinkList> {
+
+		private final OutlinkList outlinks = new OutlinkList();
+		private final Text outlink = new Text();
+		private long pages;
+
+		public void reduce(Text title, Iterable<PageVersion> versions, Context context) throws IOException, InterruptedException {
+			boolean hasOld = false;
+			boolean hasChange = false;
+			boolean removed = false;
+			outlinks.clear();
+
+			for (PageVersion version : versions) {
+				if (version.getKind() == PageVersion.OLD) {
+					hasOld = true;
+					if (!hasChange)
+						copy(version.getOutlinks());
+				} else if (!hasChange && !removed) {
+					/// Only the first change of a page is kept, as in GraphLinkReduce
+					if (version.getKind() == PageVersion.REMOVED) {
+						removed = true;
+					} else {
+						hasChange = true;
+						copy(version.getOutlinks());
+					}
+				}
+			}
+
+			if (removed) {
+				if (hasOld)
+					context.getCounter(PatchCounter.REMOVED).increment(1);
+				return;
+			}
+			if (hasChange)
+				context.getCounter(hasOld ? PatchCounter.EDITED : PatchCounter.ADDED).increment(1);
+
+			context.write(title, outlinks);
+			pages++;
+		}
+
+		@Override
+		protected void cleanup(Context context) throws IOException, InterruptedException {
+			PageDictionary.writePageCount(context, pages);
+		}
+
+		/// Hadoop reuses the value object, so the outlinks are copied
+		private void copy(OutlinkList from) {
+			outlinks.clear();
+			for (int i = 0; i < from.size(); i++) {
+				from.get(i, outlink);
+				outlinks.add(outlink.getBytes(), 0, outlink.getLength());
+			}
+		}
+	}
+}
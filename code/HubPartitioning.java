@@ -0,0 +1,209 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.mapreduce.Partitioner;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+
+/// HubPartitioning spreads the page rank contributions sent to the pages with the most inlinks, the
+/// hubs, over several reducers in the standard iteration mode. Without it, every contribution to a
+/// hub goes to the one reducer holding its page id, and that reducer sets the length of every
+/// iteration. PageDictionaryEdgeReduce counts the inlinks of every page and writes the pages with at
+/// least pagerank.skew.hub.indegree of them to edges/hubs-r-<k>, and the inlinks of its whole
+/// partition to its side file edges/_counts/part-r-<k> (see TaskCounts). The driver then gives every hub
+/// pagerank.skew.salts salted keys, negative ids which PageRankComputationMap sends the contributions
+/// of map task t to, salt = t % salts, and HubPartitioner gives every salted key the reducer with the
+/// smallest load so far. A reducer receiving a salted key writes the partial sum of the hub to
+/// partials-r-<k>, and the reducer holding the hub writes its graph structure record to hubs-r-<k>
+/// instead of its part file. A follow-up job with one reducer, whose input is only these few
+/// records, adds up the partial sums of every hub with PageRankComputationReduce, and its output is
+/// moved into the iteration directory as part-hubs-r-00000.
+public class HubPartitioning {
+
+	/// Pages with at least this many inlinks are hubs, eg: -D pagerank.skew.hub.indegree=100000
+	/// By default, 0, no page is a hub
+	public static final String HUB_INDEGREE = "pagerank.skew.hub.indegree";
+
+	/// Number of salted keys of every hub, eg: -D pagerank.skew.salts=8. By default one per reducer
+	public static final String SALTS = "pagerank.skew.salts";
+
+	/// Largest number of hubs, the ones with the most inlinks are kept, eg: -D pagerank.skew.max.hubs=500
+	public static final String MAX_HUBS = "pagerank.skew.max.hubs";
+	public static final int DEFAULT_MAX_HUBS = 1000;
+
+	/// Page ids of the hubs and the reducer of every salted key, set by the driver class
+	public static final String HUBS = "pagerank.skew.hubs";
+	public static final String HUB_REDUCERS = "pagerank.skew.hub.reducers";
+
+	/// Names of the outputs holding the hubs and their inlink counts in the edges directory, and the
+	/// hub graph structure records and partial sums in the iteration directory
+	public static final String HUBS_OUTPUT = "hubs";
+	public static final String PARTIALS_OUTPUT = "partials";
+
+	/// Name of the number of inlinks of the pages of every partition, in the side files of TaskCounts
+	public static final String INLINKS = "inlinks";
+
+	public static boolean isEnabled(Configuration conf) {
+		return conf.getInt(HUB_INDEGREE, 0) > 0;
+	}
+
+	/// Writes the number of inlinks of the pages of the partition of the reducer running this task to
+	/// its side file
+	public static void writeInlinks(TaskInputOutputContext<?, ?, ?, ?> context, long inlinks) throws IOException, InterruptedException {
+		TaskCounts counts = new TaskCounts();
+		counts.add(INLINKS, inlinks);
+		counts.write(context);
+	}
+
+	/// Reads the hubs written by PageDictionaryEdgeReduce, gives their salted keys to the reducers
+	/// and stores both in the configuration. The load of a reducer starts at the number of inlinks of
+	/// the pages it holds other than the hubs, and every salted key adds its share of the inlinks of
+	/// its hub to the reducer with the smallest load, the largest shares first. Returns the number of
+	/// hubs
+	public static int setHubs(Configuration conf, FileSystem fs, Path edges, int numReducers) throws IOException {
+		final Map<Integer, Long> inDegrees = new HashMap<Integer, Long>();
+		IntWritable pageId = new IntWritable();
+		IntWritable inDegree = new IntWritable();
+		FileStatus[] files = fs.globStatus(new Path(edges, HUBS_OUTPUT + "-*"));
+		for (FileStatus file : files == null ? new FileStatus[0] : files) {
+			SequenceFile.Reader reader = new SequenceFile.Reader(conf, SequenceFile.Reader.file(file.getPath()));
+			try {
+				while (reader.next(pageId, inDegree))
+					inDegrees.put(pageId.get(), (long) inDegree.get());
+			} finally {
+				reader.close();
+			}
+		}
+
+		List<Integer> hubs = new ArrayList<Integer>(inDegrees.keySet());
+		Collections.sort(hubs, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				int c = inDegrees.get(b).compareTo(inDegrees.get(a));
+				return c != 0 ? c : a.compareTo(b);
+			}
+		});
+		hubs = hubs.subList(0, Math.min(hubs.size(), conf.getInt(MAX_HUBS, DEFAULT_MAX_HUBS)));
+
+		int[] offsets = PageDictionary.getOffsets(conf);
+		long[] load = TaskCounts.read(conf, edges, INLINKS, numReducers);
+		for (int hub : hubs)
+			load[PageDictionary.partitionOf(offsets, hub) % numReducers] -= inDegrees.get(hub);
+
+		/// The hubs are sorted by inlinks, so their salted keys come in decreasing share order
+		int salts = conf.getInt(SALTS, numReducers);
+		int[] reducers = new int[hubs.size() * salts];
+		for (int h = 0; h < hubs.size(); h++) {
+			long share = (inDegrees.get(hubs.get(h)) + salts - 1) / salts;
+			for (int s = 0; s < salts; s++) {
+				int smallest = 0;
+				for (int k = 1; k < numReducers; k++)
+					if (load[k] < load[smallest])
+						smallest = k;
+				reducers[h * salts + s] = smallest;
+				load[smallest] += share;
+			}
+		}
+
+		conf.setInt(SALTS, salts);
+		conf.set(HUBS, join(hubs));
+		List<Integer> reducerList = new ArrayList<Integer>();
+		for (int reducer : reducers)
+			reducerList.add(reducer);
+		conf.set(HUB_REDUCERS, join(reducerList));
+		return hubs.size();
+	}
+
+	private static String join(List<Integer> values) {
+		StringBuilder sb = new StringBuilder();
+		for (int value : values)
+			sb.append(sb.length() == 0 ? "" : ",").append(value);
+		return sb.toString();
+	}
+
+	/// The hubs and salted keys of a run, read from the configuration. Salted key -(h * salts + s) - 1
+	/// belongs to salt s of hub number h
+	public static class HubTable {
+
+		private final Map<Integer, Integer> hubIndex = new HashMap<Integer, Integer>();
+		private final int[] hubs;
+		private final int[] reducers;
+		private final int salts;
+
+		/// Returns null if the run has no hubs
+		public static HubTable get(Configuration conf) {
+			return conf.get(HUBS, "").isEmpty() ? null : new HubTable(conf);
+		}
+
+		private HubTable(Configuration conf) {
+			salts = conf.getInt(SALTS, 1);
+			hubs = conf.getInts(HUBS);
+			reducers = conf.getInts(HUB_REDUCERS);
+			for (int h = 0; h < hubs.length; h++)
+				hubIndex.put(hubs[h], h);
+		}
+
+		public boolean isHub(int pageId) {
+			return hubIndex.containsKey(pageId);
+		}
+
+		/// Returns the salted key of the page id, or the page id itself if it is not a hub
+		public int saltedKey(int pageId, int salt) {
+			Integer h = hubIndex.get(pageId);
+			return h == null ? pageId : -(h * salts + salt % salts) - 1;
+		}
+
+		public int hubOf(int saltedKey) {
+			return hubs[(-saltedKey - 1) / salts];
+		}
+
+		public int reducerOf(int saltedKey) {
+			return reducers[-saltedKey - 1];
+		}
+	}
+
+	/// Partitioner sending the salted keys to the reducers chosen by the driver class, and every page
+	/// id to the reducer of the partition holding it, as PageIdPartitioner does
+	public static class HubPartitioner<V> extends Partitioner<IntWritable, V> implements Configurable {
+
+		private Configuration conf;
+		private int[] offsets;
+		private HubTable hubs;
+
+		@Override
+		public void setConf(Configuration conf) {
+			this.conf = conf;
+			this.offsets = PageDictionary.getOffsets(conf);
+			this.hubs = HubTable.get(conf);
+		}
+
+		@Override
+		public Configuration getConf() {
+			return conf;
+		}
+
+		@Override
+		public int getPartition(IntWritable pageId, V value, int numPartitions) {
+			if (pageId.get() < 0)
+				return hubs.reducerOf(pageId.get()) % numPartitions;
+			return PageDictionary.partitionOf(offsets, pageId.get()) % numPartitions;
+		}
+	}
+}
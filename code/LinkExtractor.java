@@ -0,0 +1,127 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.hadoop.io.Text;
+
+/// LinkExtractor reads the title and the outlinks of one web page in a single pass over its UTF-8
+/// bytes, as held by a Text object, without creating a String per web page or per outlink.
+///
+/// A web page is represented by the <title> tags which consist of the web page name and the <text>
+/// tag which consist of all the outlinks from this web page, written as [[outlink]]. The tags and the
+/// brackets are plain ASCII, which never appears inside a multi byte UTF-8 character, so the bytes can
+/// be searched directly. An outlink may carry a label, [[outlink|label]], or a section anchor,
+/// [[outlink#section]]. Both are cut off, so that they do not become titles of their own, and links
+/// to a section of the same page, [[#section]], are skipped.
+public class LinkExtractor {
+
+	private static final byte[] TITLE_OPEN = "<title>".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] TITLE_CLOSE = "</title>".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] TEXT_OPEN = "<text".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] TEXT_CLOSE = "</text>".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] LINK_OPEN = "[[".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] LINK_CLOSE = "]]".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] REMOVED = "<removed/>".getBytes(StandardCharsets.UTF_8);
+
+	private LinkExtractor() {
+	}
+
+	/// Extracts the title and the outlinks of the web page held in page[0, length). The title is set
+	/// into the given Text object and the outlink titles are added to the given list, which is cleared
+	/// first. Returns false if the web page has no title. When the title tags appear more than once,
+	/// the last title is kept
+	public static boolean extractPage(byte[] page, int length, Text title, OutlinkList outlinks) {
+		boolean hasTitle = false;
+		int position = 0;
+		while (true) {
+			int start = indexOf(page, TITLE_OPEN, position, length);
+			if (start < 0)
+				break;
+			start += TITLE_OPEN.length;
+			int end = indexOf(page, TITLE_CLOSE, start, length);
+			if (end < 0)
+				break;
+			title.set(page, start, end - start);
+			hasTitle = true;
+			position = end + TITLE_CLOSE.length;
+		}
+
+		outlinks.clear();
+		position = 0;
+		while (true) {
+			int start = indexOf(page, TEXT_OPEN, position, length);
+			if (start < 0)
+				break;
+			start += TEXT_OPEN.length;
+			int end = indexOf(page, TEXT_CLOSE, start, length);
+			if (end < 0)
+				break;
+			extractOutlinks(page, start, end, outlinks);
+			position = end + TEXT_CLOSE.length;
+		}
+
+		return hasTitle && title.getLength() > 0;
+	}
+
+	/// True if the line marks a web page which was removed from the corpus, written as
+	/// <title>page</title><removed/> in the changes read by an incremental run (see GraphPatch)
+	public static boolean isRemoved(byte[] page, int length) {
+		return indexOf(page, REMOVED, 0, length) >= 0;
+	}
+
+	/// Adds the outlinks found in page[from, to). A link written inside the brackets of another one,
+	/// like the caption of [[File:a.jpg|see [[outlink]]]], is read from its innermost "[["
+	private static void extractOutlinks(byte[] page, int from, int to, OutlinkList outlinks) {
+		int position = from;
+		while (true) {
+			int start = indexOf(page, LINK_OPEN, position, to);
+			if (start < 0)
+				return;
+			int end = indexOf(page, LINK_CLOSE, start + LINK_OPEN.length, to);
+			if (end < 0)
+				return;
+
+			int nested;
+			while ((nested = indexOf(page, LINK_OPEN, start + 1, end)) >= 0)
+				start = nested;
+			start += LINK_OPEN.length;
+
+			/// Only the target before the label or the section anchor is kept
+			int targetEnd = start;
+			while (targetEnd < end && page[targetEnd] != '|' && page[targetEnd] != '#')
+				targetEnd++;
+			while (start < targetEnd && isSpace(page[start]))
+				start++;
+			while (targetEnd > start && isSpace(page[targetEnd - 1]))
+				targetEnd--;
+
+			if (targetEnd > start)
+				outlinks.add(page, start, targetEnd - start);
+			position = end + LINK_CLOSE.length;
+		}
+	}
+
+	private static boolean isSpace(byte b) {
+		return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+	}
+
+	/// Returns the first position of the pattern in bytes[from, to), or -1
+	private static int indexOf(byte[] bytes, byte[] pattern, int from, int to) {
+		byte first = pattern[0];
+		int last = to - pattern.length;
+		for (int i = from; i <= last; i++) {
+			if (bytes[i] != first)
+				continue;
+			int j = 1;
+			while (j < pattern.length && bytes[i + j] == pattern[j])
+				j++;
+			if (j == pattern.length)
+				return i;
+		}
+		return -1;
+	}
+}
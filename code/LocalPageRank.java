@@ -0,0 +1,313 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.util.LineReader;
+import org.apache.hadoop.util.StringUtils;
+
+/// LocalPageRank computes the page rank of a corpus which fits in the memory of one machine, without
+/// running any MapReduce job. It is used when pagerank.engine is "local". The web pages are read with
+/// the same extraction as GraphLinkMap, the link graph is kept in compressed sparse row form (the
+/// inlinks of page t are inLinks[inOffsets[t]] to inLinks[inOffsets[t + 1] - 1]) and every iteration
+/// is run over all cores. The output is the same sorted "title<TAB>page rank" as PageRankSorting.
+public class LocalPageRank {
+
+	/// Number of threads used for the iterations, eg: -D pagerank.local.threads=8
+	/// All cores are used when it is not set
+	public static final String THREADS = "pagerank.local.threads";
+
+	private final Configuration conf;
+
+	/// Link graph in compressed sparse row form, indexed by page id
+	private String[] titles;
+	private int[] outDegree;
+	private int[] inOffsets;
+	private int[] inLinks;
+	private int noOfPages;
+	private int noOfLines;
+
+	public LocalPageRank(Configuration conf) {
+		this.conf = conf;
+	}
+
+	public int run(String inputDirectory, Path outputDirectory) throws Exception {
+		int threads = conf.getInt(THREADS, 0);
+		ForkJoinPool pool = threads > 0 ? new ForkJoinPool(threads) : ForkJoinPool.commonPool();
+		try {
+			readGraph(inputDirectory);
+			System.out.println("NUMBER OF PAGES: " + noOfPages + " NUMBER OF LINKS: " + inLinks.length);
+			double[] ranks = computePageRank(pool);
+			writePageRanks(ranks, outputDirectory);
+		} finally {
+			if (threads > 0)
+				pool.shutdown();
+		}
+		return 0;
+	}
+
+	/// Reads every web page of the input and builds the compressed sparse row link graph. Every
+	/// title, including outlink titles which are not pages, gets a title id while reading, so that
+	/// the outlinks are kept as ints. Only the first copy of a web page is kept, as in GraphLinkReduce
+	private void readGraph(String inputDirectory) throws IOException {
+		Map<String, Integer> titleIds = new HashMap<String, Integer>();
+		int[] pageOfTitle = new int[1024];
+		Arrays.fill(pageOfTitle, -1);
+		String[] pageTitles = new String[1024];
+		int[] degrees = new int[1024];
+		int[] edgeSources = new int[1024];
+		int[] edgeTargets = new int[1024];
+		int noOfEdges = 0;
+
+		OutlinkList outlinks = new OutlinkList();
+		Text line = new Text();
+		Text pageTitle = new Text();
+		Text outlink = new Text();
+
+		/// The web pages are read one per line, or as the <page> elements of an XML dump
+		boolean xml = WikiPageInputFormat.isXml(conf);
+		CompressionCodecFactory codecs = new CompressionCodecFactory(conf);
+		for (Path file : listInputFiles(inputDirectory)) {
+			FileSystem fs = file.getFileSystem(conf);
+			CompressionCodec codec = codecs.getCodec(file);
+			InputStream in = codec == null ? fs.open(file) : codec.createInputStream(fs.open(file));
+			LineReader reader = xml ? null : new LineReader(in, conf);
+			WikiPageInputFormat.PageReader pages = xml ? new WikiPageInputFormat.PageReader(in, null, 0, Long.MAX_VALUE) : null;
+			try {
+				while (xml ? pages.next(line) : reader.readLine(line) > 0) {
+					/// Every line whose title is found is counted as a web page, as in GraphLinkMap
+					if (!LinkExtractor.extractPage(line.getBytes(), line.getLength(), pageTitle, outlinks))
+						continue;
+					noOfLines++;
+					String title = pageTitle.toString();
+
+					int titleId = titleId(titleIds, title);
+					if (titleId >= pageOfTitle.length) {
+						int size = pageOfTitle.length;
+						pageOfTitle = Arrays.copyOf(pageOfTitle, Math.max(size * 2, titleId + 1));
+						Arrays.fill(pageOfTitle, size, pageOfTitle.length, -1);
+					}
+					if (pageOfTitle[titleId] >= 0)
+						continue;
+
+					int pageId = noOfPages++;
+					if (pageId == pageTitles.length) {
+						pageTitles = Arrays.copyOf(pageTitles, pageId * 2);
+						degrees = Arrays.copyOf(degrees, pageId * 2);
+					}
+					pageOfTitle[titleId] = pageId;
+					pageTitles[pageId] = title;
+					degrees[pageId] = outlinks.size();
+
+					if (noOfEdges + outlinks.size() > edgeSources.length) {
+						int size = Math.max(edgeSources.length * 2, noOfEdges + outlinks.size());
+						edgeSources = Arrays.copyOf(edgeSources, size);
+						edgeTargets = Arrays.copyOf(edgeTargets, size);
+					}
+					for (int i = 0; i < outlinks.size(); i++) {
+						outlinks.get(i, outlink);
+						edgeSources[noOfEdges] = pageId;
+						edgeTargets[noOfEdges] = titleId(titleIds, outlink.toString());
+						noOfEdges++;
+					}
+				}
+			} finally {
+				in.close();
+			}
+		}
+
+		titles = Arrays.copyOf(pageTitles, noOfPages);
+		outDegree = Arrays.copyOf(degrees, noOfPages);
+		titleIds = null;
+
+		/// Outlinks to titles which are not pages are dropped, but stay counted in the out degree
+		inOffsets = new int[noOfPages + 1];
+		for (int e = 0; e < noOfEdges; e++) {
+			int target = edgeTargets[e] < pageOfTitle.length ? pageOfTitle[edgeTargets[e]] : -1;
+			edgeTargets[e] = target;
+			if (target >= 0)
+				inOffsets[target + 1]++;
+		}
+		for (int t = 0; t < noOfPages; t++)
+			inOffsets[t + 1] += inOffsets[t];
+
+		inLinks = new int[inOffsets[noOfPages]];
+		int[] next = Arrays.copyOf(inOffsets, noOfPages);
+		for (int e = 0; e < noOfEdges; e++)
+			if (edgeTargets[e] >= 0)
+				inLinks[next[edgeTargets[e]]++] = edgeSources[e];
+	}
+
+	private static int titleId(Map<String, Integer> titleIds, String title) {
+		Integer id = titleIds.get(title);
+		if (id == null) {
+			id = titleIds.size();
+			titleIds.put(title, id);
+		}
+		return id;
+	}
+
+	/// Lists the files of the comma separated input paths, skipping hidden files like _SUCCESS
+	private Path[] listInputFiles(String inputDirectory) throws IOException {
+		List<Path> files = new ArrayList<Path>();
+		for (String input : StringUtils.split(inputDirectory)) {
+			Path path = new Path(StringUtils.unEscapeString(input));
+			FileSystem fs = path.getFileSystem(conf);
+			FileStatus[] statuses = fs.globStatus(path);
+			if (statuses == null)
+				throw new IOException("Input path does not exist: " + path);
+			for (FileStatus status : statuses) {
+				if (status.isDirectory()) {
+					for (FileStatus child : fs.listStatus(status.getPath()))
+						if (child.isFile() && !child.getPath().getName().startsWith("_") && !child.getPath().getName().startsWith("."))
+							files.add(child.getPath());
+				} else {
+					files.add(status.getPath());
+				}
+			}
+		}
+		return files.toArray(new Path[files.size()]);
+	}
+
+	/// Runs the iterations with the same formula, tolerance and maximum number of iterations as the
+	/// MapReduce iterations, pr = (1 - d) + d * (sum of the page rank contributions of the inlinks)
+	private double[] computePageRank(ForkJoinPool pool) throws Exception {
+		final int n = noOfPages;
+		final double d = PageRankDriver.DAMPING_FACTOR;
+		int maxIterations = conf.getInt(PageRankDriver.MAX_ITERATIONS, PageRankDriver.DEFAULT_MAX_ITERATIONS);
+		double tolerance = conf.getDouble(PageRankDriver.TOLERANCE, PageRankDriver.DEFAULT_TOLERANCE);
+
+		/// The initial page rank for all web pages is set to 1 / number of pages, or to the page rank
+		/// of an earlier run when starting from its output
+		double[] ranks = new double[n];
+		Arrays.fill(ranks, 1.0 / noOfLines);
+		String warmStartPath = conf.get(WarmStart.WARM_START_PATH, "");
+		if (!warmStartPath.isEmpty())
+			readWarmStartRanks(warmStartPath, ranks);
+		double[] newRanks = new double[n];
+		final double[] contributions = new double[n];
+
+		for (int iteration = 1; iteration <= maxIterations; iteration++) {
+			final double[] current = ranks;
+			final double[] next = newRanks;
+
+			/// The contribution of every page is computed once, and every page then adds up the
+			/// contributions of its inlinks. Every thread only writes its own entries
+			pool.submit(() -> IntStream.range(0, n).parallel().forEach(s ->
+					contributions[s] = outDegree[s] > 0 ? current[s] / outDegree[s] : 0)).get();
+			pool.submit(() -> IntStream.range(0, n).parallel().forEach(t -> {
+				double sum = 0;
+				for (int e = inOffsets[t]; e < inOffsets[t + 1]; e++)
+					sum += contributions[inLinks[e]];
+				next[t] = (1 - d) + d * sum;
+			})).get();
+
+			double l1Residual = pool.submit(() -> IntStream.range(0, n).parallel()
+					.mapToDouble(i -> Math.abs(next[i] - current[i])).sum()).get();
+			double maxResidual = pool.submit(() -> IntStream.range(0, n).parallel()
+					.mapToDouble(i -> Math.abs(next[i] - current[i])).max().orElse(0)).get();
+			double rankMass = pool.submit(() -> IntStream.range(0, n).parallel()
+					.mapToDouble(i -> next[i]).sum()).get();
+
+			ranks = next;
+			newRanks = current;
+			if (PageRankDriver.hasConverged(iteration, l1Residual, maxResidual, rankMass, tolerance))
+				break;
+		}
+		return ranks;
+	}
+
+	/// Sets the page rank of every page found in the "title<TAB>page rank" output of an earlier run
+	private void readWarmStartRanks(String warmStartPath, double[] ranks) throws IOException {
+		Map<String, Integer> pageIds = new HashMap<String, Integer>();
+		for (int i = 0; i < noOfPages; i++)
+			pageIds.put(titles[i], i);
+
+		Text line = new Text();
+		for (Path file : listInputFiles(warmStartPath)) {
+			LineReader reader = new LineReader(file.getFileSystem(conf).open(file), conf);
+			try {
+				while (reader.readLine(line) > 0) {
+					String[] titleRank = line.toString().split("\t", 2);
+					Integer pageId = titleRank.length == 2 ? pageIds.get(titleRank[0]) : null;
+					if (pageId != null)
+						ranks[pageId] = Double.parseDouble(titleRank[1]);
+				}
+			} finally {
+				reader.close();
+			}
+		}
+	}
+
+	/// Writes "title<TAB>page rank" sorted on page rank in descending order to part-r-00000 of the
+	/// output directory, which is what PageRankSorting writes with its single reducer. Only the top K
+	/// pages are written in the top K output mode
+	private void writePageRanks(double[] ranks, Path outputDirectory) throws IOException {
+		int limit = noOfPages;
+		if (PageRankDriver.TOP_K_OUTPUT.equals(conf.get(PageRankDriver.OUTPUT_MODE, PageRankDriver.SORT_OUTPUT)))
+			limit = Math.min(limit, conf.getInt(PageRankSorting.TOP_K, PageRankSorting.DEFAULT_TOP_K));
+
+		int[] order = sortByRank(ranks, noOfPages);
+
+		FileSystem fs = outputDirectory.getFileSystem(conf);
+		BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+				fs.create(new Path(outputDirectory, PageDictionary.partitionName(0))), StandardCharsets.UTF_8));
+		try {
+			for (int i = 0; i < limit; i++) {
+				int page = order[i];
+				writer.write(titles[page]);
+				writer.write('\t');
+				writer.write(Double.toString(ranks[page]));
+				writer.write('\n');
+			}
+		} finally {
+			writer.close();
+		}
+		fs.create(new Path(outputDirectory, "_SUCCESS")).close();
+	}
+
+	/// Page ids in descending page rank order, equal page ranks in page id order. The distinct page
+	/// ranks are sorted first, and the place of the page rank of every page among them is packed with
+	/// its page id into one long, so both sorts run on primitive arrays without boxing any page id
+	static int[] sortByRank(double[] ranks, int noOfPages) {
+		double[] distinct = Arrays.copyOf(ranks, noOfPages);
+		Arrays.parallelSort(distinct);
+		int noOfDistinct = 0;
+		for (int i = 0; i < noOfPages; i++)
+			if (noOfDistinct == 0 || Double.compare(distinct[i], distinct[noOfDistinct - 1]) != 0)
+				distinct[noOfDistinct++] = distinct[i];
+
+		long[] keys = new long[noOfPages];
+		for (int page = 0; page < noOfPages; page++) {
+			long place = noOfDistinct - 1 - Arrays.binarySearch(distinct, 0, noOfDistinct, ranks[page]);
+			keys[page] = place << 32 | page;
+		}
+		Arrays.parallelSort(keys);
+
+		int[] order = new int[noOfPages];
+		for (int i = 0; i < noOfPages; i++)
+			order[i] = (int) keys[i];
+		return order;
+	}
+}
@@ -0,0 +1,107 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/// MappedArray gives access to a file holding one array of ints, longs or doubles through memory
+/// mapped segments, so that arrays larger than the heap (and larger than the 2 GB limit of a single
+/// MappedByteBuffer) can be read and written without loading them. The values are big endian, which
+/// is what DataOutputStream writes.
+public class MappedArray {
+
+	/// Every segment maps 1 GB of the file. Any power of 2 from 8 bytes on is a multiple of 8, so no
+	/// value crosses two segments. Smaller segments are only used by the tests, to reach the segment
+	/// boundaries with small files
+	static final int SEGMENT_SHIFT = 30;
+	static final int MIN_SEGMENT_SHIFT = 3;
+
+	private final MappedByteBuffer[] segments;
+	private final long size;
+	private final int segmentShift;
+	private final int segmentMask;
+
+	private MappedArray(MappedByteBuffer[] segments, long size, int segmentShift) {
+		this.segments = segments;
+		this.size = size;
+		this.segmentShift = segmentShift;
+		this.segmentMask = (1 << segmentShift) - 1;
+	}
+
+	/// Maps the whole file read only
+	public static MappedArray open(File file) throws IOException {
+		return map(file, file.length(), false, SEGMENT_SHIFT);
+	}
+
+	/// Maps the file for reading and writing, creating it with the given size in bytes if needed
+	public static MappedArray openWritable(File file, long size) throws IOException {
+		return map(file, size, true, SEGMENT_SHIFT);
+	}
+
+	/// Maps the file in segments of 2^segmentShift bytes, from 8 bytes to 1 GB
+	static MappedArray map(File file, long size, boolean writable, int segmentShift) throws IOException {
+		if (segmentShift < MIN_SEGMENT_SHIFT || segmentShift > SEGMENT_SHIFT)
+			throw new IllegalArgumentException("The segments hold 2^" + MIN_SEGMENT_SHIFT + " to 2^" + SEGMENT_SHIFT
+					+ " bytes, not 2^" + segmentShift);
+		long segmentSize = 1L << segmentShift;
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, writable ? "rw" : "r");
+		try {
+			if (writable && randomAccessFile.length() < size)
+				randomAccessFile.setLength(size);
+
+			FileChannel channel = randomAccessFile.getChannel();
+			FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+			MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + segmentSize - 1) >>> segmentShift)];
+			for (int i = 0; i < segments.length; i++) {
+				long start = (long) i << segmentShift;
+				segments[i] = channel.map(mode, start, Math.min(segmentSize, size - start));
+			}
+
+			/// The mapping stays valid after the channel is closed
+			return new MappedArray(segments, size, segmentShift);
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	/// Size of the mapped file in bytes
+	public long size() {
+		return size;
+	}
+
+	public byte getByte(long position) {
+		return segments[(int) (position >>> segmentShift)].get((int) position & segmentMask);
+	}
+
+	public int getInt(long index) {
+		long position = index << 2;
+		return segments[(int) (position >>> segmentShift)].getInt((int) position & segmentMask);
+	}
+
+	public long getLong(long index) {
+		long position = index << 3;
+		return segments[(int) (position >>> segmentShift)].getLong((int) position & segmentMask);
+	}
+
+	public double getDouble(long index) {
+		long position = index << 3;
+		return segments[(int) (position >>> segmentShift)].getDouble((int) position & segmentMask);
+	}
+
+	public void putDouble(long index, double value) {
+		long position = index << 3;
+		segments[(int) (position >>> segmentShift)].putDouble((int) position & segmentMask, value);
+	}
+
+	/// Writes the changes of a writable mapping back to the file
+	public void flush() {
+		for (MappedByteBuffer segment : segments)
+			segment.force();
+	}
+}
@@ -0,0 +1,198 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.SequenceFile.CompressionType;
+
+/// MappedGraphStore computes the page rank on one machine for a link graph which is larger than the
+/// heap. It is used when pagerank.engine is "mapped". The graph written by PageDictionary is copied
+/// once into a local directory holding binary arrays indexed by page id:
+///
+///   offsets  long[N + 1]  the outlinks of page s are edges[offsets[s]] to edges[offsets[s + 1] - 1]
+///   edges    int[E]       outlink page ids
+///   degrees  int[N]       out degree of every page, including the outlinks to titles not in the corpus
+///   ranks    double[N]    current page rank, and ranks.next for the page rank being computed
+///
+/// The arrays are read through MappedArray, so every iteration streams the edges sequentially from
+/// the page cache and no object is created per page. The final page ranks are written back as an
+/// iteration directory, which PageRankSorting reads as usual.
+public class MappedGraphStore {
+
+	/// Local directory holding the arrays, eg: -D pagerank.mapped.path=/mnt/nvme/pagerank
+	public static final String STORE_PATH = "pagerank.mapped.path";
+	public static final String DEFAULT_STORE_PATH = "mapped_graph";
+
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	private final File directory;
+	private File ranksFile;
+	private File nextRanksFile;
+
+	public MappedGraphStore(Configuration conf) {
+		this.directory = new File(conf.get(STORE_PATH, DEFAULT_STORE_PATH));
+		this.ranksFile = new File(directory, "ranks");
+		this.nextRanksFile = new File(directory, "ranks.next");
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	static DataOutputStream create(File file) throws IOException {
+		return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+	}
+
+	/// Writes the arrays from the graph partition files. Partition k holds the page ids from
+	/// offsets[k] in increasing order, so reading the partitions in order gives every page id once
+	/// in increasing order and all arrays are written sequentially in one pass
+	public int build(Configuration conf, Path graph, int numPartitions) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("Could not create " + directory);
+
+		DataOutputStream offsets = create(new File(directory, "offsets"));
+		DataOutputStream edges = create(new File(directory, "edges"));
+		DataOutputStream degrees = create(new File(directory, "degrees"));
+		DataOutputStream ranks = create(ranksFile);
+		IntWritable pageId = new IntWritable();
+		PageRankNode node = new PageRankNode();
+		long noOfEdges = 0;
+		int noOfPages = 0;
+
+		try {
+			offsets.writeLong(0);
+			for (int partition = 0; partition < numPartitions; partition++) {
+				SequenceFile.Reader reader = PageDictionary.openPartition(conf, graph, partition);
+				try {
+					while (reader.next(pageId, node)) {
+						if (pageId.get() != noOfPages)
+							throw new IOException("Graph is not sorted by page id at page id " + pageId.get());
+
+						for (int i = 0; i < node.getOutlinkCount(); i++)
+							edges.writeInt(node.getOutlink(i));
+						noOfEdges += node.getOutlinkCount();
+						offsets.writeLong(noOfEdges);
+						degrees.writeInt(node.getOutDegree());
+						ranks.writeDouble(node.getRank());
+						noOfPages++;
+					}
+				} finally {
+					reader.close();
+				}
+			}
+		} finally {
+			offsets.close();
+			edges.close();
+			degrees.close();
+			ranks.close();
+		}
+
+		System.out.println("NUMBER OF PAGES: " + noOfPages + " NUMBER OF LINKS: " + noOfEdges);
+		return noOfPages;
+	}
+
+	/// Runs the iterations with the same formula, tolerance and maximum number of iterations as the
+	/// MapReduce iterations. Every page adds its contribution to the new page rank of its outlinks
+	/// while the edges are read in order, then the damping factor is applied to every page
+	public void computePageRank(Configuration conf) throws IOException {
+		double d = PageRankDriver.DAMPING_FACTOR;
+		int maxIterations = conf.getInt(PageRankDriver.MAX_ITERATIONS, PageRankDriver.DEFAULT_MAX_ITERATIONS);
+		double tolerance = conf.getDouble(PageRankDriver.TOLERANCE, PageRankDriver.DEFAULT_TOLERANCE);
+
+		MappedArray offsets = MappedArray.open(new File(directory, "offsets"));
+		MappedArray edges = MappedArray.open(new File(directory, "edges"));
+		MappedArray degrees = MappedArray.open(new File(directory, "degrees"));
+		long noOfPages = offsets.size() / 8 - 1;
+
+		MappedArray ranks = MappedArray.openWritable(ranksFile, noOfPages * 8);
+		MappedArray newRanks = MappedArray.openWritable(nextRanksFile, noOfPages * 8);
+
+		for (int iteration = 1; iteration <= maxIterations; iteration++) {
+			for (long t = 0; t < noOfPages; t++)
+				newRanks.putDouble(t, 0);
+
+			for (long s = 0; s < noOfPages; s++) {
+				int outDegree = degrees.getInt(s);
+				if (outDegree == 0)
+					continue;
+				double contribution = ranks.getDouble(s) / outDegree;
+				long end = offsets.getLong(s + 1);
+				for (long e = offsets.getLong(s); e < end; e++) {
+					int t = edges.getInt(e);
+					newRanks.putDouble(t, newRanks.getDouble(t) + contribution);
+				}
+			}
+
+			double l1Residual = 0;
+			double maxResidual = 0;
+			double rankMass = 0;
+			for (long t = 0; t < noOfPages; t++) {
+				/// pr = (1 - d) + d * (new page rank value)
+				double pageRank = (1 - d) + d * newRanks.getDouble(t);
+				double change = Math.abs(pageRank - ranks.getDouble(t));
+				l1Residual += change;
+				maxResidual = Math.max(maxResidual, change);
+				rankMass += pageRank;
+				newRanks.putDouble(t, pageRank);
+			}
+
+			/// The new page ranks are the current ones of the next iteration
+			MappedArray swap = ranks;
+			ranks = newRanks;
+			newRanks = swap;
+			File swapFile = ranksFile;
+			ranksFile = nextRanksFile;
+			nextRanksFile = swapFile;
+
+			if (PageRankDriver.hasConverged(iteration, l1Residual, maxResidual, rankMass, tolerance))
+				break;
+		}
+		ranks.flush();
+	}
+
+	/// Writes the current page ranks as (page id, PageRankNode) partition files in the given directory,
+	/// using the same page id ranges as the dictionary
+	public void writePageRanks(Configuration conf, Path output) throws IOException {
+		int[] partitionOffsets = PageDictionary.getOffsets(conf);
+		MappedArray ranks = MappedArray.open(ranksFile);
+		IntWritable pageId = new IntWritable();
+		PageRankNode node = new PageRankNode();
+
+		for (int partition = 0; partition < partitionOffsets.length - 1; partition++) {
+			SequenceFile.Writer writer = SequenceFile.createWriter(conf,
+					SequenceFile.Writer.file(new Path(output, PageDictionary.partitionName(partition))),
+					SequenceFile.Writer.keyClass(IntWritable.class),
+					SequenceFile.Writer.valueClass(PageRankNode.class),
+					SequenceFile.Writer.compression(CompressionType.BLOCK));
+			try {
+				for (int id = partitionOffsets[partition]; id < partitionOffsets[partition + 1]; id++) {
+					pageId.set(id);
+					node.setStructure(ranks.getDouble(id));
+					writer.append(pageId, node);
+				}
+			} finally {
+				writer.close();
+			}
+		}
+	}
+
+	/// Deletes the arrays once the page ranks are written back
+	public void delete() {
+		File[] files = directory.listFiles();
+		if (files != null)
+			for (File file : files)
+				file.delete();
+		directory.delete();
+	}
+}
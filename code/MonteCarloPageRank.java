@@ -0,0 +1,233 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.lib.output.MultipleOutputs;
+
+/// MonteCarloPageRank estimates the page ranks from random walks instead of computing them, when
+/// pagerank.iteration.mode is "montecarlo". pagerank.montecarlo.walks walks start from every page. At
+/// every step a walk stops with probability 1 - d, and otherwise follows one of the outlinks of its
+/// page, chosen at random among all the outlinks the page had in the corpus. A walk also stops at a
+/// page without outlinks or on an outlink to a title which is not a web page, where the page rank
+/// computation loses the same page rank. Since pr = (1 - d) + d * sum(pr / out degree), the page rank
+/// of a page is (1 - d) times the expected number of visits of the walks started from all pages, so it
+/// is estimated as (1 - d) * (visits) / (walks per page), on the same scale as the computed page ranks.
+///
+/// The walks are moved in rounds, one MapReduce job each, as counts of walks waiting at a page. Reducer
+/// k holds the outlinks of graph partition k in memory (see PageRankBlock.BlockGraph) and moves the
+/// walks arriving at its pages until they stop or leave the partition. Only the walks leaving a
+/// partition are written to walkers-r-<k> and sent through the shuffle of the next round, so most of
+/// the steps of a walk inside a partition cost no job at all. Every round writes the estimated page
+/// rank of every page id as a RANK record, like the schimmy mode, so PageRankSorting reads the last
+/// round as it reads the last iteration.
+public class MonteCarloPageRank {
+
+	/// Number of walks started from every page, eg: -D pagerank.montecarlo.walks=20
+	public static final String WALKS = "pagerank.montecarlo.walks";
+	public static final int DEFAULT_WALKS = 10;
+
+	/// Seed of the random numbers, so that a run can be repeated, eg: -D pagerank.montecarlo.seed=7
+	public static final String SEED = "pagerank.montecarlo.seed";
+
+	/// Round number, set by the driver class for every job
+	public static final String ROUND = "pagerank.montecarlo.round";
+
+	/// Name of the output holding the walks which left a partition
+	public static final String WALKERS_OUTPUT = "walkers";
+
+	/// Walks which left a partition in a round, and the sums giving the estimated error of the page ranks
+	public static enum MonteCarloCounter { WALKERS, VISITS, STANDARD_ERROR, RANK_MASS }
+
+	public static long getWalkers(Counters counters) {
+		return counters.findCounter(MonteCarloCounter.WALKERS).getValue();
+	}
+
+	/// Whether a round wrote any walkers-r-<k> file. A reducer whose walks all stayed in its partition
+	/// writes none, so the next round only reads the round when one of them did
+	public static boolean hasWalkers(FileSystem fs, Path roundPath) throws IOException {
+		FileStatus[] files = fs.globStatus(new Path(roundPath, WALKERS_OUTPUT + "-*"));
+		return files != null && files.length > 0;
+	}
+
+	/// The page rank the walks still moving would add: every walk visits 1 / (1 - d) pages on average,
+	/// counted as (1 - d) / (walks per page) each
+	public static double getRemainingRank(Counters counters, int walksPerPage) {
+		return (double) getWalkers(counters) / walksPerPage;
+	}
+
+	public static double getRankMass(Counters counters) {
+		return counters.findCounter(MonteCarloCounter.RANK_MASS).getValue() / PageRankComputation.COUNTER_SCALE;
+	}
+
+	/// The estimated relative error of the page ranks: the standard error of the visit count of a page
+	/// is about the square root of the count, so the sum of the standard errors of all page ranks is
+	/// divided by the total page rank. Walks visiting a page more than once make the real error larger
+	public static double getRelativeError(Counters counters) {
+		double mass = counters.findCounter(MonteCarloCounter.RANK_MASS).getValue();
+		return mass > 0 ? counters.findCounter(MonteCarloCounter.STANDARD_ERROR).getValue() / mass : 0;
+	}
+
+	/// This Mapper class starts pagerank.montecarlo.walks walks from every page of the graph in the
+	/// first round. The later rounds read the walks which left a partition with the identity Mapper
+	public static class MonteCarloStartMap extends Mapper<IntWritable, PageRankNode, IntWritable, LongWritable> {
+
+		private final LongWritable walks = new LongWritable();
+
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			walks.set(context.getConfiguration().getInt(WALKS, DEFAULT_WALKS));
+		}
+
+		public void map(IntWritable page, PageRankNode prOutlinks, Context context) throws IOException, InterruptedException {
+			context.write(page, walks);
+		}
+	}
+
+	/// This Reducer class collects the walks arriving at the pages of its partition, moves them through
+	/// the partition, and writes the estimated page rank of every page id in order along with the walks
+	/// which left the partition
+	public static class MonteCarloReduce extends Reducer<IntWritable, LongWritable, IntWritable, PageRankNode> {
+
+		private double DAMPING_FACTOR;
+		private int firstPageId;
+		private long[] arriving;
+		private MultipleOutputs<IntWritable, PageRankNode> multipleOutputs;
+
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			Configuration conf = context.getConfiguration();
+			DAMPING_FACTOR = conf.getDouble("DAMPING_FACTOR", PageRankDriver.DAMPING_FACTOR);
+			int partition = context.getTaskAttemptID().getTaskID().getId();
+			int[] offsets = PageDictionary.getOffsets(conf);
+			firstPageId = offsets[partition];
+			arriving = new long[offsets[partition + 1] - firstPageId];
+			multipleOutputs = new MultipleOutputs<IntWritable, PageRankNode>(context);
+		}
+
+		public void reduce(IntWritable page, Iterable<LongWritable> walks, Context context) throws IOException, InterruptedException {
+			for (LongWritable count : walks)
+				arriving[page.get() - firstPageId] += count.get();
+		}
+
+		@Override
+		protected void cleanup(Context context) throws IOException, InterruptedException {
+			Configuration conf = context.getConfiguration();
+			int partition = context.getTaskAttemptID().getTaskID().getId();
+			int round = conf.getInt(ROUND, 0);
+			int walksPerPage = conf.getInt(WALKS, DEFAULT_WALKS);
+			double visitRank = (1 - DAMPING_FACTOR) / walksPerPage;
+			Random random = new Random(conf.getLong(SEED, 1) * 1000003L + round * 8191L + partition);
+
+			/// The estimated page ranks of the previous round are read in place of the graph page ranks
+			PageRankBlock.BlockGraph block = new PageRankBlock.BlockGraph(conf, partition, false);
+			int pages = block.size();
+			double[] oldRanks = new double[pages];
+			String rankPath = conf.get(PageRankSchimmy.RANK_PATH);
+			if (rankPath != null) {
+				block.readRanks(conf, new Path(rankPath), partition);
+				oldRanks = block.ranks;
+			}
+
+			/// Every walk counts a visit at every page it arrives at, and is moved on until it stops or
+			/// leaves the partition. The walks leaving it are counted at the local id of their target,
+			/// its place among the page ids outside the partition which the outlinks point to
+			long[] visits = new long[pages];
+			int[] outside = outsideTargets(block);
+			long[] leaving = new long[outside.length];
+			boolean moving = true;
+			while (moving) {
+				moving = false;
+				for (int p = 0; p < pages; p++) {
+					long count = arriving[p];
+					if (count == 0)
+						continue;
+					arriving[p] = 0;
+					visits[p] += count;
+					if (block.outDegree[p] == 0)
+						continue;
+
+					int outlinks = block.linkStart[p + 1] - block.linkStart[p];
+					for (long w = 0; w < count; w++) {
+						if (random.nextDouble() >= DAMPING_FACTOR)
+							continue;
+						int link = random.nextInt(block.outDegree[p]);
+						if (link >= outlinks)
+							continue;
+						int target = block.links[block.linkStart[p] + link];
+						if (block.contains(target)) {
+							arriving[target - firstPageId]++;
+							moving = true;
+						} else {
+							leaving[Arrays.binarySearch(outside, target)]++;
+						}
+					}
+				}
+			}
+
+			IntWritable pageId = new IntWritable();
+			PageRankNode node = new PageRankNode();
+			LongWritable walks = new LongWritable();
+			long walkers = 0;
+			for (int t = 0; t < outside.length; t++) {
+				if (leaving[t] == 0)
+					continue;
+				pageId.set(outside[t]);
+				walks.set(leaving[t]);
+				walkers += leaving[t];
+				multipleOutputs.write(WALKERS_OUTPUT, pageId, walks);
+			}
+			context.getCounter(MonteCarloCounter.WALKERS).increment(walkers);
+
+			double standardError = 0;
+			double rankMass = 0;
+			long totalVisits = 0;
+			for (int p = 0; p < pages; p++) {
+				double pageRank = oldRanks[p] + visits[p] * visitRank;
+				pageId.set(firstPageId + p);
+				node.setPageRank(pageRank, visits[p] * visitRank);
+				context.write(pageId, node);
+
+				standardError += Math.sqrt(pageRank / visitRank) * visitRank;
+				rankMass += pageRank;
+				totalVisits += visits[p];
+			}
+			context.getCounter(MonteCarloCounter.VISITS).increment(totalVisits);
+			context.getCounter(MonteCarloCounter.STANDARD_ERROR).increment(Math.round(standardError * PageRankComputation.COUNTER_SCALE));
+			context.getCounter(MonteCarloCounter.RANK_MASS).increment(Math.round(rankMass * PageRankComputation.COUNTER_SCALE));
+			TaskCounts counts = new TaskCounts();
+			RunReport.countReduceInput(context, counts);
+			counts.write(context);
+			multipleOutputs.close();
+		}
+
+		/// The distinct page ids outside the partition which the outlinks of its pages point to, in order
+		private static int[] outsideTargets(PageRankBlock.BlockGraph block) {
+			int[] targets = new int[block.linkStart[block.size()]];
+			int count = 0;
+			for (int e = 0; e < targets.length; e++)
+				if (!block.contains(block.links[e]))
+					targets[count++] = block.links[e];
+			Arrays.sort(targets, 0, count);
+			int distinct = 0;
+			for (int i = 0; i < count; i++)
+				if (distinct == 0 || targets[i] != targets[distinct - 1])
+					targets[distinct++] = targets[i];
+			return Arrays.copyOf(targets, distinct);
+		}
+	}
+}
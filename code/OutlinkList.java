@@ -0,0 +1,94 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+
+/// OutlinkList holds the outlink titles of one web page as written by GraphLink, before the titles
+/// are replaced by page ids in PageDictionary. All titles are kept as UTF-8 bytes in one buffer,
+/// so that adding a title does not create a new object per outlink.
+public class OutlinkList implements Writable {
+
+	private byte[] bytes = new byte[256];
+	private int[] ends = new int[16];
+	private int size;
+
+	public void clear() {
+		size = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void add(String title) {
+		byte[] utf8 = title.getBytes(StandardCharsets.UTF_8);
+		add(utf8, 0, utf8.length);
+	}
+
+	/// Appends the title stored in bytes[start, start + length)
+	public void add(byte[] src, int start, int length) {
+		int from = size == 0 ? 0 : ends[size - 1];
+		if (from + length > bytes.length)
+			bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, from + length));
+		if (size == ends.length)
+			ends = Arrays.copyOf(ends, size * 2);
+		System.arraycopy(src, start, bytes, from, length);
+		ends[size++] = from + length;
+	}
+
+	/// Sets the i-th outlink title into the given Text object
+	public void get(int i, Text title) {
+		int from = i == 0 ? 0 : ends[i - 1];
+		title.set(bytes, from, ends[i] - from);
+	}
+
+	@Override
+	public void write(DataOutput out) throws IOException {
+		WritableUtils.writeVInt(out, size);
+		int from = 0;
+		for (int i = 0; i < size; i++) {
+			WritableUtils.writeVInt(out, ends[i] - from);
+			out.write(bytes, from, ends[i] - from);
+			from = ends[i];
+		}
+	}
+
+	@Override
+	public void readFields(DataInput in) throws IOException {
+		size = 0;
+		int count = WritableUtils.readVInt(in);
+		if (count > ends.length)
+			ends = new int[count];
+		int from = 0;
+		for (int i = 0; i < count; i++) {
+			int length = WritableUtils.readVInt(in);
+			if (from + length > bytes.length)
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, from + length));
+			in.readFully(bytes, from, length);
+			from += length;
+			ends[size++] = from;
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		Text title = new Text();
+		for (int i = 0; i < size; i++) {
+			get(i, title);
+			sb.append(i == 0 ? "" : " ").append(title);
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,369 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.MapFile;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.Partitioner;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+import org.apache.hadoop.mapreduce.lib.output.MultipleOutputs;
+
+/// PageDictionary gives every web page a dense integer page id and rewrites the link graph from
+/// outlink titles to outlink ids, so that the PageRankComputation iterations shuffle and sort
+/// integers instead of titles. The titles are looked up again only in PageRankSorting.
+///
+/// The page id of a title is its position in the sorted output of GraphLinkReduce: a title at
+/// position i of part-r-<k> gets the id (number of titles in parts 0 to k-1) + i. Both jobs of
+/// this class run with the same number of reducers as GraphLink, so reducer k receives exactly the
+/// titles of graph_link/part-r-<k> in the same sorted order and reads that file alongside its input.
+/// Every job keyed by titles therefore partitions them the same way, with setTitlePartitioner.
+public class PageDictionary {
+
+	/// Name of the number of titles written by every GraphLink reducer, in the side files of TaskCounts
+	public static final String PAGE_COUNT = "pages";
+
+	/// Configuration keys set by the driver class
+	public static final String OFFSETS = "pagerank.dictionary.offsets";
+	public static final String GRAPH_LINK_PATH = "pagerank.graph.link.path";
+	public static final String GRAPH_PATH = "pagerank.graph.path";
+	public static final String DICTIONARY_PATH = "pagerank.dictionary.path";
+	public static final String DICTIONARY_OUTPUT = "dictionary";
+
+	/// Number of leading bytes of a title which choose its partition, eg: -D pagerank.partition.prefix=3
+	/// Titles sharing a prefix then get neighbouring page ids in one partition, which keeps more of
+	/// the links inside a partition for the block mode (see PageRankBlock). By default, 0, the whole
+	/// title is hashed
+	public static final String TITLE_PREFIX = "pagerank.partition.prefix";
+
+	/// Name of the output file written by the given reducer, which is also the name of its side file
+	public static String partitionName(int partition) {
+		return String.format("part-r-%05d", partition);
+	}
+
+	/// Writes the number of titles written by the reducer running this task to its side file
+	public static void writePageCount(TaskInputOutputContext<?, ?, ?, ?> context, long pages) throws IOException, InterruptedException {
+		TaskCounts counts = new TaskCounts();
+		counts.add(PAGE_COUNT, pages);
+		counts.write(context);
+	}
+
+	/// Turns the numbers of titles written by the reducers to the GraphLink output directory into the
+	/// first page id of every partition and stores them in the configuration. The last entry holds
+	/// the total number of web pages
+	public static int setOffsets(Configuration conf, Path graphLink, int numPartitions) throws IOException {
+		long[] pages = TaskCounts.read(conf, graphLink, PAGE_COUNT, numPartitions);
+		int[] offsets = new int[numPartitions + 1];
+		for (int i = 0; i < numPartitions; i++)
+			offsets[i + 1] = offsets[i] + (int) pages[i];
+
+		StringBuilder sb = new StringBuilder();
+		for (int offset : offsets)
+			sb.append(sb.length() == 0 ? "" : ",").append(offset);
+		conf.set(OFFSETS, sb.toString());
+		return offsets[numPartitions];
+	}
+
+	public static int[] getOffsets(Configuration conf) {
+		String[] parts = conf.getStrings(OFFSETS);
+		int[] offsets = new int[parts.length];
+		for (int i = 0; i < parts.length; i++)
+			offsets[i] = Integer.parseInt(parts[i].trim());
+		return offsets;
+	}
+
+	/// Finds the partition whose page id range holds the given id
+	public static int partitionOf(int[] offsets, int id) {
+		int i = Arrays.binarySearch(offsets, id);
+		if (i < 0)
+			return -i - 2;
+
+		/// Empty partitions share their offset with the next one, so move on to the last of them
+		while (i + 1 < offsets.length - 1 && offsets[i + 1] == id)
+			i++;
+		return i;
+	}
+
+	/// Opens the sorted output file which the reducer with the same partition number wrote in an
+	/// earlier job
+	public static SequenceFile.Reader openPartition(Configuration conf, Path dir, int partition) throws IOException {
+		return new SequenceFile.Reader(conf, SequenceFile.Reader.file(new Path(dir, partitionName(partition))));
+	}
+
+	/// This Mapper class reads the link graph and emits every outlink title along with the title of
+	/// the web page linking to it, so that the outlink can be looked up in the partition holding it
+	public static class PageDictionaryEdgeMap extends Mapper<Text, OutlinkList, Text, Text> {
+
+		private final Text outlink = new Text();
+
+		public void map(Text page, OutlinkList outlinks, Context context) throws IOException, InterruptedException {
+			for (int i = 0; i < outlinks.size(); i++) {
+				outlinks.get(i, outlink);
+				context.write(outlink, page);
+			}
+		}
+	}
+
+	/// This Reducer class gives every outlink title its page id, by walking through the titles of
+	/// graph_link/part-r-<k> in step with the sorted keys of this reducer. Outlinks to titles which
+	/// are not web pages of the corpus are dropped here. The output is (web page, outlink id). When
+	/// pagerank.skew.hub.indegree is set, the pages with at least that many inlinks are also written
+	/// to hubs-r-<k> along with their number of inlinks (see HubPartitioning)
+	public static class PageDictionaryEdgeReduce extends Reducer<Text, Text, Text, IntWritable> {
+
+		private SequenceFile.Reader graphLink;
+		private final Text title = new Text();
+		private final IntWritable outlinkId = new IntWritable();
+		private final IntWritable inDegree = new IntWritable();
+		private boolean hasTitle;
+		private int pageId;
+		private int hubInDegree;
+		private long inlinkTotal;
+		private MultipleOutputs<Text, IntWritable> multipleOutputs;
+
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			Configuration conf = context.getConfiguration();
+			int partition = context.getTaskAttemptID().getTaskID().getId();
+			graphLink = openPartition(conf, new Path(conf.get(GRAPH_LINK_PATH)), partition);
+			pageId = getOffsets(conf)[partition] - 1;
+			hasTitle = nextTitle();
+			hubInDegree = conf.getInt(HubPartitioning.HUB_INDEGREE, 0);
+			if (hubInDegree > 0)
+				multipleOutputs = new MultipleOutputs<Text, IntWritable>(context);
+		}
+
+		private boolean nextTitle() throws IOException {
+			boolean found = graphLink.next(title);
+			if (found)
+				pageId++;
+			return found;
+		}
+
+		public void reduce(Text outlink, Iterable<Text> pages, Context context) throws IOException, InterruptedException {
+			while (hasTitle && title.compareTo(outlink) < 0)
+				hasTitle = nextTitle();
+
+			if (hasTitle && title.equals(outlink)) {
+				outlinkId.set(pageId);
+				int inlinks = 0;
+				for (Text page : pages) {
+					context.write(page, outlinkId);
+					inlinks++;
+				}
+
+				if (multipleOutputs != null) {
+					inlinkTotal += inlinks;
+					if (inlinks >= hubInDegree) {
+						inDegree.set(inlinks);
+						multipleOutputs.write(HubPartitioning.HUBS_OUTPUT, outlinkId, inDegree);
+					}
+				}
+			}
+		}
+
+		@Override
+		protected void cleanup(Context context) throws IOException, InterruptedException {
+			graphLink.close();
+			if (multipleOutputs != null) {
+				HubPartitioning.writeInlinks(context, inlinkTotal);
+				multipleOutputs.close();
+			}
+		}
+	}
+
+	/// This Reducer class collects the outlink ids of every web page and writes the graph structure
+	/// record of the page under its own page id, along with the initial page rank (1 / N, or the page
+	/// rank of an earlier run, see WarmStart). Web pages
+	/// without any outlink id are not passed to this reducer, so they are written while walking
+	/// through graph_link/part-r-<k>. The title of every page id is written to the dictionary MapFile
+	public static class PageDictionaryGraphReduce extends Reducer<Text, IntWritable, IntWritable, PageRankNode> {
+
+		private SequenceFile.Reader graphLink;
+		private MultipleOutputs<IntWritable, PageRankNode> multipleOutputs;
+		private final Text title = new Text();
+		private final OutlinkList titleOutlinks = new OutlinkList();
+		private final IntWritable pageId = new IntWritable();
+		private final PageRankNode node = new PageRankNode();
+		private boolean hasTitle;
+		private double initialPageRank;
+		private WarmStart.RankReader warmStartRanks;
+
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			Configuration conf = context.getConfiguration();
+			int partition = context.getTaskAttemptID().getTaskID().getId();
+			graphLink = openPartition(conf, new Path(conf.get(GRAPH_LINK_PATH)), partition);
+			multipleOutputs = new MultipleOutputs<IntWritable, PageRankNode>(context);
+			pageId.set(getOffsets(conf)[partition] - 1);
+
+			/// The initial page rank for all web pages is set to 1 / number of pages
+			initialPageRank = 1 / Double.parseDouble(conf.get("noOfPages"));
+
+			/// or to the page rank of the earlier run when starting from its output
+			if (conf.get(WarmStart.RANKS_PATH) != null)
+				warmStartRanks = new WarmStart.RankReader(conf, partition);
+			hasTitle = nextTitle();
+		}
+
+		private boolean nextTitle() throws IOException {
+			boolean found = graphLink.next(title, titleOutlinks);
+			if (found)
+				pageId.set(pageId.get() + 1);
+			return found;
+		}
+
+		public void reduce(Text page, Iterable<IntWritable> outlinkIds, Context context) throws IOException, InterruptedException {
+			while (hasTitle && title.compareTo(page) < 0) {
+				writePage(null, context);
+				hasTitle = nextTitle();
+			}
+
+			if (hasTitle && title.equals(page)) {
+				writePage(outlinkIds, context);
+				hasTitle = nextTitle();
+			}
+		}
+
+		private void writePage(Iterable<IntWritable> outlinkIds, Context context) throws IOException, InterruptedException {
+			node.setStructure(warmStartRanks == null ? initialPageRank : warmStartRanks.get(pageId.get(), initialPageRank));
+			if (outlinkIds != null) {
+				for (IntWritable outlinkId : outlinkIds)
+					node.addOutlink(outlinkId.get());
+				node.sortOutlinks();
+			}
+			node.setOutDegree(titleOutlinks.size());
+
+			context.write(pageId, node);
+			multipleOutputs.write(DICTIONARY_OUTPUT, pageId, title, DICTIONARY_OUTPUT + "/part");
+		}
+
+		@Override
+		protected void cleanup(Context context) throws IOException, InterruptedException {
+			while (hasTitle) {
+				writePage(null, context);
+				hasTitle = nextTitle();
+			}
+			graphLink.close();
+			if (warmStartRanks != null)
+				warmStartRanks.close();
+			multipleOutputs.close();
+		}
+	}
+
+	/// Sets the partitioner of a job keyed by titles, which is the same for all these jobs of a run
+	public static void setTitlePartitioner(Job job) {
+		if (job.getConfiguration().getInt(TITLE_PREFIX, 0) > 0)
+			job.setPartitionerClass(TitlePrefixPartitioner.class);
+	}
+
+	/// Partitioner hashing only the first pagerank.partition.prefix bytes of a title
+	public static class TitlePrefixPartitioner<V> extends Partitioner<Text, V> implements Configurable {
+
+		private Configuration conf;
+		private int prefix;
+
+		@Override
+		public void setConf(Configuration conf) {
+			this.conf = conf;
+			this.prefix = conf.getInt(TITLE_PREFIX, 0);
+		}
+
+		@Override
+		public Configuration getConf() {
+			return conf;
+		}
+
+		@Override
+		public int getPartition(Text title, V value, int numPartitions) {
+			int hash = WritableComparator.hashBytes(title.getBytes(), Math.min(prefix, title.getLength()));
+			return (hash & Integer.MAX_VALUE) % numPartitions;
+		}
+	}
+
+	/// Partitioner sending every page id to the reducer of the partition holding it. The output of an
+	/// iteration is then sorted by page id in the same ranges as the dictionary, which lets
+	/// PageRankSorting look up the titles of a part file in one sequential pass
+	public static class PageIdPartitioner<V> extends Partitioner<IntWritable, V> implements Configurable {
+
+		private Configuration conf;
+		private int[] offsets;
+
+		@Override
+		public void setConf(Configuration conf) {
+			this.conf = conf;
+			this.offsets = getOffsets(conf);
+		}
+
+		@Override
+		public Configuration getConf() {
+			return conf;
+		}
+
+		@Override
+		public int getPartition(IntWritable pageId, V value, int numPartitions) {
+			return partitionOf(offsets, pageId.get()) % numPartitions;
+		}
+	}
+
+	/// Looks up the title of a page id in the dictionary MapFiles. Page ids asked for in increasing
+	/// order are read sequentially instead of searching the MapFile index every time
+	public static class TitleLookup implements Closeable {
+
+		private final Configuration conf;
+		private final Path dictionary;
+		private final int[] offsets;
+		private final MapFile.Reader[] readers;
+		private final IntWritable key = new IntWritable();
+		private int lastPartition = -1;
+		private int lastId = -1;
+
+		public TitleLookup(Configuration conf) {
+			this.conf = conf;
+			this.dictionary = new Path(conf.get(DICTIONARY_PATH));
+			this.offsets = getOffsets(conf);
+			this.readers = new MapFile.Reader[offsets.length - 1];
+		}
+
+		/// Sets the title of the page id into the given Text object. Returns false if the id is unknown
+		public boolean get(int id, Text title) throws IOException {
+			int partition = partitionOf(offsets, id);
+			if (partition < 0 || partition >= readers.length)
+				return false;
+			if (readers[partition] == null)
+				readers[partition] = new MapFile.Reader(new Path(dictionary, partitionName(partition)), conf);
+
+			boolean found = partition == lastPartition && id == lastId + 1
+					&& readers[partition].next(key, title) && key.get() == id;
+			if (!found) {
+				key.set(id);
+				found = readers[partition].get(key, title) != null;
+			}
+
+			lastPartition = partition;
+			lastId = id;
+			return found;
+		}
+
+		@Override
+		public void close() throws IOException {
+			for (MapFile.Reader reader : readers)
+				if (reader != null)
+					reader.close();
+		}
+	}
+}
@@ -0,0 +1,258 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+
+/// PageRankBlock is the iteration used when pagerank.iteration.mode is "block". Every partition of the
+/// graph, the page ids of graph/part-r-<k>, is a block. The files are laid out as in PageRankSchimmy,
+/// but only the page rank contributions sent along links between two blocks go through the shuffle.
+/// Reducer k loads the links inside block k into memory and runs inner iterations over them, with the
+/// contributions from the other blocks held fixed, until the page ranks of the block converge or
+/// pagerank.block.inner.iterations is reached. A global iteration then carries much more than one step
+/// of the power iteration inside every block, and the run needs fewer MapReduce jobs to converge. The
+/// more links stay inside the blocks, the fewer jobs are needed, which is what
+/// pagerank.partition.prefix is for (see PageDictionary).
+public class PageRankBlock {
+
+	/// Maximum number of inner iterations of a block in one global iteration, eg:
+	/// -D pagerank.block.inner.iterations=20
+	public static final String INNER_ITERATIONS = "pagerank.block.inner.iterations";
+	public static final int DEFAULT_INNER_ITERATIONS = 10;
+
+	/// Number of inner iterations run by all reducers of a global iteration
+	public static enum BlockCounter { INNER_ITERATIONS }
+
+	public static long getInnerIterations(Counters counters) {
+		return counters.findCounter(BlockCounter.INNER_ITERATIONS).getValue();
+	}
+
+	/// The pages of one graph partition, read into memory: the outlink ids of every page in compressed
+	/// sparse row form, its out degree and its page rank in the graph
+	static class BlockGraph {
+
+		final int firstPageId;
+		final int endPageId;
+		final int[] linkStart;
+		final int[] outDegree;
+		final double[] ranks;
+		int[] links;
+
+		/// Reads graph/part-r-<partition>. Only the links inside the block are kept if internalOnly is set
+		BlockGraph(Configuration conf, int partition, boolean internalOnly) throws IOException {
+			int[] offsets = PageDictionary.getOffsets(conf);
+			firstPageId = offsets[partition];
+			endPageId = offsets[partition + 1];
+			int pages = endPageId - firstPageId;
+			linkStart = new int[pages + 1];
+			outDegree = new int[pages];
+			ranks = new double[pages];
+			links = new int[Math.max(16, pages)];
+			int linkCount = 0;
+
+			IntWritable pageId = new IntWritable();
+			PageRankNode node = new PageRankNode();
+			SequenceFile.Reader graph = PageDictionary.openPartition(conf, new Path(conf.get(PageDictionary.GRAPH_PATH)), partition);
+			try {
+				for (int p = 0; p < pages; p++) {
+					PageRankSchimmy.readPage(graph, pageId, node, firstPageId + p);
+					outDegree[p] = node.getOutDegree();
+					ranks[p] = node.getRank();
+					for (int i = 0; i < node.getOutlinkCount(); i++) {
+						int outlink = node.getOutlink(i);
+						if (internalOnly && !contains(outlink))
+							continue;
+						if (linkCount == links.length)
+							links = Arrays.copyOf(links, linkCount * 2);
+						links[linkCount++] = outlink;
+					}
+					linkStart[p + 1] = linkCount;
+				}
+			} finally {
+				graph.close();
+			}
+		}
+
+		int size() {
+			return outDegree.length;
+		}
+
+		boolean contains(int pageId) {
+			return pageId >= firstPageId && pageId < endPageId;
+		}
+
+		/// Reads the page ranks of the block written by an earlier job, in place of those of the graph
+		void readRanks(Configuration conf, Path dir, int partition) throws IOException {
+			IntWritable pageId = new IntWritable();
+			PageRankNode node = new PageRankNode();
+			SequenceFile.Reader reader = PageDictionary.openPartition(conf, dir, partition);
+			try {
+				for (int p = 0; p < size(); p++) {
+					PageRankSchimmy.readPage(reader, pageId, node, firstPageId + p);
+					ranks[p] = node.getRank();
+				}
+			} finally {
+				reader.close();
+			}
+		}
+	}
+
+	/// This Mapper class reads one whole graph partition file, along with the page rank file of the
+	/// same partition from the previous iteration. It only emits the contributions sent to the pages of
+	/// other blocks
+	public static class PageRankBlockMap extends Mapper<IntWritable, PageRankNode, IntWritable, PageRankNode> {
+
+		private SequenceFile.Reader ranks;
+		private final IntWritable rankKey = new IntWritable();
+		private final PageRankNode rankNode = new PageRankNode();
+		private final IntWritable outlinkKey = new IntWritable();
+		private final PageRankNode contribution = new PageRankNode();
+		private int firstPageId;
+		private int endPageId;
+
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			Configuration conf = context.getConfiguration();
+			String partition = ((FileSplit) context.getInputSplit()).getPath().getName();
+			int block = Integer.parseInt(partition.substring(partition.lastIndexOf('-') + 1));
+			int[] offsets = PageDictionary.getOffsets(conf);
+			firstPageId = offsets[block];
+			endPageId = offsets[block + 1];
+
+			String rankPath = conf.get(PageRankSchimmy.RANK_PATH);
+			if (rankPath != null)
+				ranks = new SequenceFile.Reader(conf, SequenceFile.Reader.file(new Path(rankPath, partition)));
+		}
+
+		public void map(IntWritable page, PageRankNode prOutlinks, Context context) throws IOException, InterruptedException {
+			double pageRank = prOutlinks.getRank();
+			if (ranks != null) {
+				PageRankSchimmy.readPage(ranks, rankKey, rankNode, page.get());
+				pageRank = rankNode.getRank();
+			}
+
+			int numberOfOutlinks = prOutlinks.getOutlinkCount();
+			if (numberOfOutlinks > 0) {
+				contribution.setContribution(pageRank / prOutlinks.getOutDegree());
+				for (int i = 0; i < numberOfOutlinks; i++) {
+					int outlink = prOutlinks.getOutlink(i);
+					if (outlink >= firstPageId && outlink < endPageId)
+						continue;
+					outlinkKey.set(outlink);
+					context.write(outlinkKey, contribution);
+				}
+			}
+		}
+
+		@Override
+		protected void cleanup(Context context) throws IOException, InterruptedException {
+			if (ranks != null)
+				ranks.close();
+		}
+	}
+
+	/// This Reducer class adds up the contributions from the other blocks for every page id of its
+	/// block. Once all of them are received, it reads the graph partition and the page ranks of the
+	/// previous iteration, iterates over the links inside the block, and writes the RANK record of every
+	/// page id in order
+	public static class PageRankBlockReduce extends Reducer<IntWritable, PageRankNode, IntWritable, PageRankNode> {
+
+		private double DAMPING_FACTOR;
+		private double tolerance;
+		private int maxInnerIterations;
+		private int firstPageId;
+		private double[] external;
+		private final PageRankComputation.Residual residual = new PageRankComputation.Residual();
+
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			Configuration conf = context.getConfiguration();
+			DAMPING_FACTOR = conf.getDouble("DAMPING_FACTOR", PageRankDriver.DAMPING_FACTOR);
+			tolerance = conf.getDouble(PageRankDriver.TOLERANCE, PageRankDriver.DEFAULT_TOLERANCE);
+			maxInnerIterations = conf.getInt(INNER_ITERATIONS, DEFAULT_INNER_ITERATIONS);
+
+			int partition = context.getTaskAttemptID().getTaskID().getId();
+			int[] offsets = PageDictionary.getOffsets(conf);
+			firstPageId = offsets[partition];
+			external = new double[offsets[partition + 1] - firstPageId];
+		}
+
+		public void reduce(IntWritable page, Iterable<PageRankNode> it, Context context) throws IOException, InterruptedException {
+			double sum = 0;
+			for (PageRankNode value : it)
+				sum += value.getRank();
+			external[page.get() - firstPageId] += sum;
+		}
+
+		@Override
+		protected void cleanup(Context context) throws IOException, InterruptedException {
+			Configuration conf = context.getConfiguration();
+			int partition = context.getTaskAttemptID().getTaskID().getId();
+			int pages = external.length;
+
+			/// The links inside the block, and the page ranks of the previous iteration, or of the graph
+			/// itself in the first one
+			BlockGraph block = new BlockGraph(conf, partition, true);
+			String rankPath = conf.get(PageRankSchimmy.RANK_PATH);
+			if (rankPath != null)
+				block.readRanks(conf, new Path(rankPath), partition);
+			double[] oldRanks = block.ranks;
+			int[] linkStart = block.linkStart;
+			int[] links = block.links;
+			int[] outDegree = block.outDegree;
+
+			/// pr = (1 - d) + d * (contributions from other blocks + contributions inside the block)
+			double[] ranks = oldRanks.clone();
+			double[] next = new double[pages];
+			int innerIterations = 0;
+			while (innerIterations < maxInnerIterations) {
+				Arrays.fill(next, 0);
+				for (int p = 0; p < pages; p++) {
+					if (linkStart[p] == linkStart[p + 1])
+						continue;
+					double share = ranks[p] / outDegree[p];
+					for (int e = linkStart[p]; e < linkStart[p + 1]; e++)
+						next[links[e] - firstPageId] += share;
+				}
+
+				double l1 = 0;
+				double mass = 0;
+				for (int p = 0; p < pages; p++) {
+					next[p] = (1 - DAMPING_FACTOR) + DAMPING_FACTOR * (external[p] + next[p]);
+					l1 += Math.abs(next[p] - ranks[p]);
+					mass += next[p];
+				}
+				double[] swap = ranks;
+				ranks = next;
+				next = swap;
+				innerIterations++;
+
+				if (l1 <= tolerance * mass)
+					break;
+			}
+			context.getCounter(BlockCounter.INNER_ITERATIONS).increment(innerIterations);
+
+			IntWritable pageId = new IntWritable();
+			PageRankNode node = new PageRankNode();
+			for (int p = 0; p < pages; p++) {
+				residual.add(oldRanks[p], ranks[p]);
+				pageId.set(firstPageId + p);
+				node.setPageRank(ranks[p], ranks[p] - oldRanks[p]);
+				context.write(pageId, node);
+			}
+			residual.report(context);
+		}
+	}
+}
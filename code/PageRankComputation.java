@@ -6,108 +6,203 @@ package org.myorg;
 
 import java.io.IOException;
 
-import org.apache.hadoop.io.Text;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.mapreduce.Counters;
 import org.apache.hadoop.mapreduce.Mapper;
 import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+import org.apache.hadoop.mapreduce.lib.output.MultipleOutputs;
 
 /// PageRankComputation class has a Mapper and a Reducer class. This is the component that 
 /// will be run in the main loop. The output of this phase is directly readable as the input 
-/// of the same step, so that we can run it multiple times. The loop is run 10 times in this program
+/// of the same step, so that we can run it multiple times. The loop is run until the page ranks
+/// stop changing, which the reducers report through the job counters and side files below
 public class PageRankComputation {
 	
+	/// Counters holding the sum of the page rank changes (L1 residual), the total page rank mass and
+	/// the number of pages written by an iteration. Counters only hold long values, so the doubles
+	/// are stored multiplied by COUNTER_SCALE
+	public static enum PageRankCounter { L1_RESIDUAL, RANK_MASS, PAGES }
+	
+	/// The largest page rank change (L-infinity residual) can not be summed up over the reducers, so
+	/// every reducer writes its own under this name to its side file (see TaskCounts) and the driver
+	/// takes the largest one
+	public static final String MAX_RESIDUAL = "max_residual";
+	public static final double COUNTER_SCALE = 1e9;
+	
+	/// Residual adds up the page rank changes seen by one reducer and reports them to the counters
+	/// and the side file of the reducer once the reducer is done
+	public static class Residual {
+		
+		private double l1Residual;
+		private double maxResidual;
+		private double rankMass;
+		private long pages;
+		
+		public void add(double oldPageRank, double newPageRank) {
+			double change = Math.abs(newPageRank - oldPageRank);
+			l1Residual += change;
+			maxResidual = Math.max(maxResidual, change);
+			rankMass += newPageRank;
+			pages++;
+		}
+		
+		public void report(TaskInputOutputContext<?, ?, ?, ?> context) throws IOException, InterruptedException {
+			context.getCounter(PageRankCounter.L1_RESIDUAL).increment(Math.round(l1Residual * COUNTER_SCALE));
+			context.getCounter(PageRankCounter.RANK_MASS).increment(Math.round(rankMass * COUNTER_SCALE));
+			context.getCounter(PageRankCounter.PAGES).increment(pages);
+			TaskCounts counts = new TaskCounts();
+			counts.max(MAX_RESIDUAL, Math.round(maxResidual * COUNTER_SCALE));
+			RunReport.countReduceInput(context, counts);
+			counts.write(context);
+		}
+		
+		public static double getL1Residual(Counters counters) {
+			return counters.findCounter(PageRankCounter.L1_RESIDUAL).getValue() / COUNTER_SCALE;
+		}
+		
+		public static double getRankMass(Counters counters) {
+			return counters.findCounter(PageRankCounter.RANK_MASS).getValue() / COUNTER_SCALE;
+		}
+		
+		/// The largest page rank change of the iteration which wrote the output directory
+		public static double getMaxResidual(Configuration conf, Path outputDirectory) throws IOException {
+			return TaskCounts.max(conf, outputDirectory, MAX_RESIDUAL) / COUNTER_SCALE;
+		}
+	}
+	
 	/// This Mapper class is used to calculate page rank for each web page. The "page" passed here is
-	/// the web page, and the "prOutlinks" passed here is the string having initial page rank for the
-	/// web page along with all the outlinks
-	public static class PageRankComputationMap extends Mapper<Text, Text, Text, Text> {
+	/// the page id of the web page, and the "prOutlinks" passed here is the graph structure record
+	/// having the page rank of the web page along with the page ids of all the outlinks
+	public static class PageRankComputationMap extends Mapper<IntWritable, PageRankNode, IntWritable, PageRankNode> {
 		
-		public void map (Text page, Text prOutlinks, Context context) throws IOException, InterruptedException {
-			
-			/// Outlink delimiter and Pagerank delimiter are defined and passed from the driver class
-			String OUTLINK_DELIMITER = context.getConfiguration().get("OUTLINK_DELIMITER");
-			String PAGERANK_DELIMITER = context.getConfiguration().get("PAGERANK_DELIMITER");
-			
-			String pageRankValue = "";
-			String[] outlinks = null;
-			
-			/// prOutlinks is split using the Page rank delimiter
-			String[] tempSplit = prOutlinks.toString().split(PAGERANK_DELIMITER);
-			
-			/// Check for string array length to avoid ArraysOutofBound exception
-			/// 0th position sholds the page rank value
-			if (tempSplit.length > 0)
-				pageRankValue = tempSplit[0];
+		/// The output key and value are reused for every outlink instead of allocating new ones
+		private final IntWritable outlinkKey = new IntWritable();
+		private final PageRankNode contribution = new PageRankNode();
+		
+		/// The contributions to a hub are sent to the salted key of this map task (see HubPartitioning)
+		private HubPartitioning.HubTable hubs;
+		private int salt;
+		
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			hubs = HubPartitioning.HubTable.get(context.getConfiguration());
+			salt = context.getTaskAttemptID().getTaskID().getId();
+		}
+		
+		public void map (IntWritable page, PageRankNode prOutlinks, Context context) throws IOException, InterruptedException {
 			
-			/// 1st position holds the string with all outlinks joined by the outlink delimiter
-			/// "#####", which is split on the delimiter and stored in the variable "outlinks"
-			if (tempSplit.length > 1)
-				outlinks = tempSplit[1].split(OUTLINK_DELIMITER);
+			/// Get the number of outlinks
+			int numberOfOutlinks = prOutlinks.getOutlinkCount();
 			
 			/// If the outlinks are present, then proceed
-			if (outlinks != null && outlinks.length > 0) {
-				
-				/// Get the number of outlinks
-				double numberOfOutlinks = (double) outlinks.length;
+			if (numberOfOutlinks > 0) {
 				
-				/// If the page rank is available
-				if (!pageRankValue.isEmpty()) {
-					
-					/// Calculate the new page rank, which is (page rank value / number of outlinks)
-					double newPageRankValue = Double.parseDouble(pageRankValue) / numberOfOutlinks;
-					for (String outlink : outlinks) {
-						/// Iterate through all outlinks. If the outlinks is not empty, then
-						/// combine the outlink with the new page rank value
-						if (!outlink.isEmpty()) {
-							context.write(new Text(outlink), new Text(Double.toString(newPageRankValue)));
-						}
-					}
+				/// Calculate the new page rank, which is (page rank value / number of outlinks)
+				/// and combine every outlink with it. The number of outlinks also counts the
+				/// outlinks to titles which are not in the corpus
+				contribution.setContribution(prOutlinks.getRank() / prOutlinks.getOutDegree());
+				for (int i = 0; i < numberOfOutlinks; i++) {
+					int outlink = prOutlinks.getOutlink(i);
+					outlinkKey.set(hubs == null ? outlink : hubs.saltedKey(outlink, salt));
+					context.write(outlinkKey, contribution);
 				}
 			}
 			
-			/// Append the web page info and the initial page rank along with the outlinks
+			/// Append the web page info and the page rank along with the outlinks
 			/// to the context
-			if (!page.toString().isEmpty() && !prOutlinks.toString().isEmpty())
-				context.write(page, prOutlinks);
+			context.write(page, prOutlinks);
+		}
+	}
+	
+	/// Combiner class which adds up the page rank contributions sent to the same web page by one map
+	/// task, so that a web page linked from many pages receives one CONTRIBUTION record per map task
+	/// instead of one per inlink. The graph STRUCTURE record is passed on unchanged
+	public static class PageRankComputationCombine extends Reducer<IntWritable, PageRankNode, IntWritable, PageRankNode> {
+		
+		private final PageRankNode contribution = new PageRankNode();
+		
+		public void reduce (IntWritable page, Iterable<PageRankNode> it, Context context) throws IOException, InterruptedException {
+			
+			double pageRankSum = 0;
+			int contributions = 0;
+			
+			for (PageRankNode value : it) {
+				if (value.isStructure()) {
+					context.write(page, value);
+				} else {
+					pageRankSum += value.getRank();
+					contributions++;
+				}
+			}
+			
+			if (contributions > 0) {
+				contribution.setContribution(pageRankSum);
+				context.write(page, contribution);
+			}
 		}
 	}
 	
 	/// Reducer class will calculate the pagerank for the web page for the data passed from the
 	/// Mapper by including the damping factor, d = 0.85
 	/// The iterable passed to this reduce function consists of a list of values which has one
-	/// (url / page rank outlinks list) and other (outlink / new page rank value)
-	public static class PageRankComputationReduce extends Reducer<Text, Text, Text, Text> {
+	/// graph STRUCTURE record (old page rank / outlinks list) and CONTRIBUTION records (new page rank values)
+	/// When the run has hubs, the partial sum of a salted key is written to partials-r-<k> and the
+	/// graph STRUCTURE record of a hub to hubs-r-<k>, both to be added up by the follow-up job
+	public static class PageRankComputationReduce extends Reducer<IntWritable, PageRankNode, IntWritable, PageRankNode> {
+		
+		private final PageRankNode outlinkList = new PageRankNode();
+		private final Residual residual = new Residual();
+		private final IntWritable hubKey = new IntWritable();
+		private final PageRankNode partialSum = new PageRankNode();
+		private HubPartitioning.HubTable hubs;
+		private MultipleOutputs<IntWritable, PageRankNode> multipleOutputs;
+		
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			hubs = HubPartitioning.HubTable.get(context.getConfiguration());
+			if (hubs != null)
+				multipleOutputs = new MultipleOutputs<IntWritable, PageRankNode>(context);
+		}
 		
-		public void reduce (Text page, Iterable<Text> it, Context context) throws IOException, InterruptedException {
+		public void reduce (IntWritable page, Iterable<PageRankNode> it, Context context) throws IOException, InterruptedException {
+			
+			/// A salted key only receives contributions to one hub
+			if (page.get() < 0) {
+				double pageRankSum = 0;
+				for (PageRankNode value : it)
+					pageRankSum += value.getRank();
+				hubKey.set(hubs.hubOf(page.get()));
+				partialSum.setContribution(pageRankSum);
+				multipleOutputs.write(HubPartitioning.PARTIALS_OUTPUT, hubKey, partialSum);
+				return;
+			}
 			
-			/// Page rank delimiter and damping factor is passed from the driver class
-			String PAGERANK_DELIMITER = context.getConfiguration().get("PAGERANK_DELIMITER");
-			Double DAMPING_FACTOR = Double.parseDouble(context.getConfiguration().get("DAMPING_FACTOR"));
+			/// Damping factor is passed from the driver class
+			double DAMPING_FACTOR = context.getConfiguration().getDouble("DAMPING_FACTOR", PageRankDriver.DAMPING_FACTOR);
 			
 			/// flag is a boolean variable initially set to false, but set to true when the 
-			/// (url / page rank outlinks list) is found
+			/// graph structure record is found
 			boolean flag = false;
-			String outlinkList = "";
 			
 			double newPageRank = 0;
 			
-			/// One line of the mapper output consist of web page info and old pagerank and 
-			/// outlink list. The rest of the lines consist of page rank and outlinks. The
-			/// following code separates out these values
-			for (Text value :  it) {
-				String str = value.toString();
-				
-				if (str.contains(PAGERANK_DELIMITER)) {
-					/// If the string contains page rank delimiter, then separate the old page rank
-					/// from the outlinks list
-					String[] graphLinkList = str.split(PAGERANK_DELIMITER);
-					
-					if (graphLinkList.length == 2) outlinkList = graphLinkList[1];
+			/// One value of the mapper output is the graph structure record with the old pagerank
+			/// and outlink list. The rest of the values are the page rank contributions. The type tag
+			/// of the record separates these values
+			for (PageRankNode value : it) {
+				if (value.isStructure()) {
+					/// Hadoop reuses the value object, so the outlinks list is copied
+					outlinkList.set(value);
 					
 					/// setting the flag to true since the outlinks list is found
 					flag = true;
 				} else {
 					/// add the new page rank value calculated for the outlink to the "newPageRank"
 					/// variable
-					newPageRank += Double.parseDouble(str);
+					newPageRank += value.getRank();
 				}
 			}
 			
@@ -115,12 +210,23 @@ public class PageRankComputation {
 			/// pr = (1 - d) + d * (new page rank value)
 			double pageRankAfterDamping = (1 - DAMPING_FACTOR) + DAMPING_FACTOR * newPageRank;
 			
-			/// web page info, along with page rank value after damping followed by page rank delimiter and
-			/// outlink list is written to the file. The output will be written to,
-			/// ../intermediate_directory/iteration_<number>/. This directory is passed as input to the
-			/// next iteration
-			if (flag && !page.toString().isEmpty())
-				context.write(page, new Text(String.valueOf(pageRankAfterDamping) + PAGERANK_DELIMITER + outlinkList));
+			/// web page info, along with page rank value after damping and the outlink list is written
+			/// to the file. The output will be written to ../intermediate_directory/iteration_<number>/.
+			/// This directory is passed as input to the next iteration
+			if (flag && hubs != null && hubs.isHub(page.get())) {
+				multipleOutputs.write(HubPartitioning.HUBS_OUTPUT, page, outlinkList);
+			} else if (flag) {
+				residual.add(outlinkList.getRank(), pageRankAfterDamping);
+				outlinkList.setRank(pageRankAfterDamping);
+				context.write(page, outlinkList);
+			}
+		}
+		
+		@Override
+		protected void cleanup(Context context) throws IOException, InterruptedException {
+			residual.report(context);
+			if (multipleOutputs != null)
+				multipleOutputs.close();
 		}
 	}
 }
@@ -0,0 +1,122 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+
+/// PageRankDelta is the iteration used when pagerank.iteration.mode is "delta", after the first
+/// iteration, which is a full PageRankSchimmy iteration. The page rank update is linear, so the change
+/// of the page ranks in an iteration is the damped sum of the changes of the previous iteration sent
+/// along the outlinks: r(i) - r(i-1) = d * sum((r(i-1) - r(i-2)) / out degree). Every RANK record
+/// carries the pending change of its page, the change which it has not sent yet, and only the pages
+/// whose pending change is more than pagerank.delta.threshold of their page rank send it. A page which
+/// sent its pending change starts again from its next change, and every other page adds its next
+/// change to the pending one, so a small change is only delayed until the sum passes the threshold,
+/// never dropped, and the page ranks reach the fixed point of the standard iteration. The reducer
+/// tells which pages sent their change from the same test on the record of the previous iteration.
+/// All other pages keep their page rank unless they receive a change, so once most of the graph is
+/// stable, only the pages still moving send records through the shuffle. The files are laid out as
+/// in PageRankSchimmy: the graph structure stays in ../intermediate_directory/graph and every
+/// iteration only writes the RANK record of every page id.
+public class PageRankDelta {
+
+	/// A page sends its change when it is larger than this fraction of its page rank, eg:
+	/// -D pagerank.delta.threshold=0.00001. By default it is a tenth of pagerank.tolerance
+	public static final String THRESHOLD = "pagerank.delta.threshold";
+
+	/// Number of pages which sent their change in an iteration
+	public static enum DeltaCounter { ACTIVE_PAGES }
+
+	public static double getThreshold(Configuration conf) {
+		return conf.getDouble(THRESHOLD, conf.getDouble(PageRankDriver.TOLERANCE, PageRankDriver.DEFAULT_TOLERANCE) / 10);
+	}
+
+	public static long getActivePages(Counters counters) {
+		return counters.findCounter(DeltaCounter.ACTIVE_PAGES).getValue();
+	}
+
+	/// Whether a page with the given page rank sends its pending change
+	static boolean isActive(double pendingChange, double pageRank, double threshold) {
+		return Math.abs(pendingChange) > threshold * Math.abs(pageRank);
+	}
+
+	/// This Mapper class reads one whole graph partition file, along with the page rank file of the
+	/// same partition from the previous iteration. It only emits the pending changes of the active pages
+	public static class PageRankDeltaMap extends Mapper<IntWritable, PageRankNode, IntWritable, PageRankNode> {
+
+		private SequenceFile.Reader ranks;
+		private final IntWritable rankKey = new IntWritable();
+		private final PageRankNode rankNode = new PageRankNode();
+		private final IntWritable outlinkKey = new IntWritable();
+		private final PageRankNode contribution = new PageRankNode();
+		private double threshold;
+
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			Configuration conf = context.getConfiguration();
+			threshold = getThreshold(conf);
+			String partition = ((FileSplit) context.getInputSplit()).getPath().getName();
+			ranks = new SequenceFile.Reader(conf, SequenceFile.Reader.file(new Path(conf.get(PageRankSchimmy.RANK_PATH), partition)));
+		}
+
+		public void map(IntWritable page, PageRankNode prOutlinks, Context context) throws IOException, InterruptedException {
+			PageRankSchimmy.readPage(ranks, rankKey, rankNode, page.get());
+			double pageRank = rankNode.getRank();
+			double change = rankNode.getChange();
+
+			int numberOfOutlinks = prOutlinks.getOutlinkCount();
+			if (numberOfOutlinks > 0 && isActive(change, pageRank, threshold)) {
+				context.getCounter(DeltaCounter.ACTIVE_PAGES).increment(1);
+				contribution.setContribution(change / prOutlinks.getOutDegree());
+				for (int i = 0; i < numberOfOutlinks; i++) {
+					outlinkKey.set(prOutlinks.getOutlink(i));
+					context.write(outlinkKey, contribution);
+				}
+			}
+		}
+
+		@Override
+		protected void cleanup(Context context) throws IOException, InterruptedException {
+			ranks.close();
+		}
+	}
+
+	/// This Reducer class walks through every page id of its partition like PageRankSchimmyReduce, but
+	/// adds the damped sum of the changes received to the page rank of the previous iteration, and
+	/// writes the pending change of every page
+	public static class PageRankDeltaReduce extends PageRankSchimmy.PageRankSchimmyReduce {
+
+		private double threshold;
+
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			super.setup(context);
+			threshold = getThreshold(context.getConfiguration());
+		}
+
+		/// pr = (old page rank) + d * (sum of the changes)
+		@Override
+		protected double update(double oldPageRank, double changes) {
+			return oldPageRank + DAMPING_FACTOR * changes;
+		}
+
+		/// The pending change was sent by the mapper when the page was active, otherwise the change of
+		/// this iteration is added to it. A page without outlinks sent nothing, but its pending change
+		/// is never read, so it is reset all the same
+		@Override
+		protected double change(double oldPageRank, double newPageRank, double pendingChange) {
+			double unsent = isActive(pendingChange, oldPageRank, threshold) ? 0 : pendingChange;
+			return unsent + newPageRank - oldPageRank;
+		}
+	}
+}
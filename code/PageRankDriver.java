@@ -5,45 +5,143 @@
 package org.myorg;
 import org.myorg.GraphLink.GraphLinkMap;
 import org.myorg.GraphLink.GraphLinkReduce;
+import org.myorg.GraphPatch.GraphPatchChangeMap;
+import org.myorg.GraphPatch.GraphPatchOldMap;
+import org.myorg.GraphPatch.GraphPatchReduce;
+import org.myorg.GraphPatch.PageVersion;
+import org.myorg.PageDictionary.PageDictionaryEdgeMap;
+import org.myorg.PageDictionary.PageDictionaryEdgeReduce;
+import org.myorg.PageDictionary.PageDictionaryGraphReduce;
+import org.myorg.HubPartitioning.HubPartitioner;
+import org.myorg.MonteCarloPageRank.MonteCarloReduce;
+import org.myorg.MonteCarloPageRank.MonteCarloStartMap;
+import org.myorg.PageDictionary.PageIdPartitioner;
+import org.myorg.PageRankBlock.PageRankBlockMap;
+import org.myorg.PageRankBlock.PageRankBlockReduce;
+import org.myorg.PageRankComputation.PageRankComputationCombine;
 import org.myorg.PageRankComputation.PageRankComputationMap;
 import org.myorg.PageRankComputation.PageRankComputationReduce;
+import org.myorg.PageRankComputation.Residual;
+import org.myorg.PageRankDelta.PageRankDeltaMap;
+import org.myorg.PageRankDelta.PageRankDeltaReduce;
+import org.myorg.PageRankSchimmy.PageRankSchimmyMap;
+import org.myorg.PageRankSchimmy.PageRankSchimmyReduce;
 import org.myorg.PageRankSorting.PageRankSortingMap;
+import org.myorg.PersonalizedPageRank.PersonalizedCombine;
+import org.myorg.PersonalizedPageRank.PersonalizedMap;
+import org.myorg.PersonalizedPageRank.PersonalizedReduce;
+import org.myorg.PersonalizedPageRank.RankVector;
+import org.myorg.PersonalizedPageRank.SeedMap;
+import org.myorg.PersonalizedPageRank.SeedReduce;
+import org.myorg.PersonalizedPageRank.VectorSplitMap;
+import org.myorg.RankExtrapolation.RankExtrapolationMap;
+import org.myorg.RankIndex.RankIndexMap;
 import org.myorg.PageRankSorting.PageRankSortingReduce;
+import org.myorg.PageRankSorting.PageRankTopKMap;
+import org.myorg.PageRankSorting.PageRankTopKReduce;
 import org.myorg.PageRankSorting.PageRankValueComparator;
-import org.myorg.WebPageCount.WebPageCountMap;
-import org.myorg.WebPageCount.WebPageCountReduce;
+import org.myorg.WarmStart.WarmStartMap;
+import org.myorg.WarmStart.WarmStartReduce;
 
-import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.conf.Configured;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FileUtil;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.DoubleWritable;
 import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.SequenceFile.CompressionType;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Counters;
 import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.Mapper;
 import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
 import org.apache.hadoop.mapreduce.lib.input.KeyValueTextInputFormat;
+import org.apache.hadoop.mapreduce.lib.input.MultipleInputs;
+import org.apache.hadoop.mapreduce.lib.input.SequenceFileInputFormat;
+import org.apache.hadoop.mapreduce.lib.input.TextInputFormat;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputCommitter;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.mapreduce.lib.output.LazyOutputFormat;
+import org.apache.hadoop.mapreduce.lib.output.MapFileOutputFormat;
+import org.apache.hadoop.mapreduce.lib.output.MultipleOutputs;
+import org.apache.hadoop.mapreduce.lib.output.SequenceFileOutputFormat;
 import org.apache.hadoop.mapreduce.lib.output.TextOutputFormat;
+import org.apache.hadoop.mapreduce.lib.partition.TotalOrderPartitioner;
+import org.apache.hadoop.mapreduce.lib.reduce.LongSumReducer;
 import org.apache.hadoop.util.Tool;
 import org.apache.hadoop.util.ToolRunner;
 import org.apache.log4j.Logger;
 
 /// PageRankDriver class runs all the other Map/Reduce jobs like
-/// PageCount -> GraphLink - > PageRankComputation (10 iterations) -> PageRankSorting
+/// GraphLink -> PageDictionary -> PageRankComputation (until the page ranks converge) -> PageRankSorting
 public class PageRankDriver extends Configured implements Tool {
 
 	public static final Logger LOG = Logger.getLogger(PageRankDriver.class);
 	
-	/// Page rang delimiter, outlink delimiter, and the damping factor defined here
-	public static final String PAGERANK_DELIMITER = "-----";
-	public static final String OUTLINK_DELIMITER = "#####";
+	/// The damping factor defined here
 	public static final double DAMPING_FACTOR = 0.85;
 	
+	/// The page rank computation is run until the sum of the page rank changes of an iteration,
+	/// divided by the total page rank, falls below the tolerance, or until the maximum number of
+	/// iterations is reached. Both can be set on the command line, eg: -D pagerank.tolerance=0.0001
+	public static final String MAX_ITERATIONS = "pagerank.max.iterations";
+	public static final String TOLERANCE = "pagerank.tolerance";
+	public static final int DEFAULT_MAX_ITERATIONS = 30;
+	public static final double DEFAULT_TOLERANCE = 0.001;
+	
+	/// Where the page rank is computed, eg: -D pagerank.engine=local
+	/// "mapreduce" runs the MapReduce jobs below, "local" builds the link graph in memory and
+	/// computes the page rank with all cores of this machine (see LocalPageRank), and "mapped" builds
+	/// the link graph with MapReduce and runs the iterations on this machine over memory mapped files
+	/// (see MappedGraphStore)
+	public static final String ENGINE = "pagerank.engine";
+	public static final String MAPREDUCE_ENGINE = "mapreduce";
+	public static final String LOCAL_ENGINE = "local";
+	public static final String MAPPED_ENGINE = "mapped";
+	
+	/// The way every iteration is run, eg: -D pagerank.iteration.mode=schimmy
+	/// "standard" shuffles the graph structure along with the page rank contributions,
+	/// "schimmy" keeps the graph structure in ../intermediate_directory/graph and only shuffles the
+	/// page rank contributions (see PageRankSchimmy), "delta" runs one schimmy iteration and
+	/// then only shuffles the page rank changes of the pages which are still moving (see
+	/// PageRankDelta), "block" iterates over the links inside every partition in memory and only
+	/// shuffles the page rank contributions between partitions (see PageRankBlock), and "montecarlo"
+	/// estimates the page ranks from random walks started at every page (see MonteCarloPageRank)
+	public static final String ITERATION_MODE = "pagerank.iteration.mode";
+	public static final String STANDARD_MODE = "standard";
+	public static final String SCHIMMY_MODE = "schimmy";
+	public static final String DELTA_MODE = "delta";
+	public static final String BLOCK_MODE = "block";
+	public static final String MONTE_CARLO_MODE = "montecarlo";
+	
+	/// Iteration mode of the runs computing one page rank vector per topic, which is set by
+	/// -D pagerank.personalization.path=<seed file> (see PersonalizedPageRank)
+	public static final String PERSONALIZED_MODE = "personalized";
+	
+	/// Continue the run from the last completed stage or iteration of an earlier run which stopped,
+	/// instead of starting from scratch. Set with --resume on the command line
+	public static final String RESUME = "pagerank.resume";
+	
+	/// The output written by PageRankSorting, eg: -D pagerank.output.mode=topk
+	/// "sort" sorts all pages with a single reducer into OUT_DIR/part-r-00000, "topk" writes only the
+	/// pagerank.output.topk pages with the highest page rank, and "total" sorts all pages with
+	/// pagerank.output.reducers reducers, whose part files follow each other in page rank order
+	public static final String OUTPUT_MODE = "pagerank.output.mode";
+	public static final String SORT_OUTPUT = "sort";
+	public static final String TOP_K_OUTPUT = "topk";
+	public static final String TOTAL_ORDER_OUTPUT = "total";
+	public static final String OUTPUT_REDUCERS = "pagerank.output.reducers";
+	
+	/// Metrics of every job of the run, written once the run ends (see RunReport)
+	private final RunReport report = new RunReport();
+	
 	public static void main(String[] args) throws Exception {
 		
 		int res = ToolRunner.run(new PageRankDriver(), args);
@@ -51,191 +149,929 @@ public class PageRankDriver extends Configured implements Tool {
 
 	}
 
+	/// Metrics of the jobs run so far
+	public RunReport getReport() {
+		return report;
+	}
+
 	@Override
 	public int run(String[] args) throws Exception {
 		
 		/// Setting the intermediate directory path, input directory path, output directory path
+		/// The options --resume, --warm-start <output directory of an earlier run> and
+		/// --incremental <state directory of an earlier run> are given before the input and output
+		/// directories
+		List<String> paths = new ArrayList<String>();
+		for (int a = 0; a < args.length; a++) {
+			if ("--resume".equals(args[a]))
+				getConf().setBoolean(RESUME, true);
+			else if ("--warm-start".equals(args[a]) && a + 1 < args.length)
+				getConf().set(WarmStart.WARM_START_PATH, args[++a]);
+			else if ("--incremental".equals(args[a]) && a + 1 < args.length)
+				getConf().set(GraphPatch.INCREMENTAL_PATH, args[++a]);
+			else
+				paths.add(args[a]);
+		}
 		String intermediateDirectory = "intermediate_directory";
 		Path intermediatePath = new Path(intermediateDirectory);
-		String inputDirectory = args[0];
-		Path outputDirectory = new Path(args[1]);
+		String inputDirectory = paths.get(0);
+		Path outputDirectory = new Path(paths.get(1));
+		String engine = getConf().get(ENGINE, MAPREDUCE_ENGINE);
+		String iterationMode = getConf().get(ITERATION_MODE, STANDARD_MODE);
+		String warmStartPath = getConf().get(WarmStart.WARM_START_PATH, "");
+		String incrementalPath = getConf().get(GraphPatch.INCREMENTAL_PATH, "");
+		boolean incremental = !incrementalPath.isEmpty();
 		
-		Configuration initialConf = new Configuration();
+		/// The local engine reads the whole corpus and keeps nothing between runs, so the options which
+		/// need the intermediate or the state directory are rejected before anything is deleted
+		if (LOCAL_ENGINE.equals(engine)) {
+			if (incremental)
+				throw new IOException("The local engine reads the whole corpus, so it can not run with --incremental");
+			if (getConf().getBoolean(RESUME, false))
+				throw new IOException("The local engine keeps no intermediate directory, so it can not run with --resume");
+			if (!getConf().get(GraphPatch.STATE_PATH, "").isEmpty())
+				throw new IOException("The local engine writes no graph_link, so it can not keep a state directory with " + GraphPatch.STATE_PATH);
+		}
 		
-		/// Delete the output and intermediate directories if present
-		FileSystem fs = FileSystem.get(initialConf);
+		/// An incremental run reads only the changed web pages from the input directory. It patches
+		/// the graph_link of the earlier run, starts from the page ranks of the earlier run and runs
+		/// the delta iterations, so that only the pages around the changed ones send records. The
+		/// GraphPatch and PageDictionary jobs still read the whole link graph, and the first delta
+		/// iteration is a full schimmy pass, so the work saved only starts with the second iteration
+		if (incremental) {
+			if (!warmStartPath.isEmpty())
+				throw new IOException("An incremental run starts from the page ranks kept in its state directory, so it can not run with --warm-start");
+			warmStartPath = new Path(incrementalPath, GraphPatch.STATE_RANKS).toString();
+			getConf().set(WarmStart.WARM_START_PATH, warmStartPath);
+			iterationMode = DELTA_MODE;
+		}
+		
+		/// The output is kept as the page ranks the next incremental run starts from, and the top K
+		/// output mode only writes K pages of it, which would leave every other page at 1 / N
+		if (!getConf().get(GraphPatch.STATE_PATH, "").isEmpty() && TOP_K_OUTPUT.equals(getConf().get(OUTPUT_MODE, SORT_OUTPUT)))
+			throw new IOException("The top K output only holds K pages, so it can not be kept for an incremental run with " + GraphPatch.STATE_PATH);
+		
+		/// A personalized run computes the page rank vectors of all topics of the seed file at once
+		String seedsPath = getConf().get(PersonalizedPageRank.SEEDS_PATH, "");
+		boolean personalized = !seedsPath.isEmpty();
+		if (personalized) {
+			if (!MAPREDUCE_ENGINE.equals(engine) || incremental)
+				throw new IOException("Personalized page ranks are only computed by the MapReduce engine, without --incremental");
+			if (!getConf().get(GraphPatch.STATE_PATH, "").isEmpty())
+				throw new IOException("The output of a personalized run has one directory per topic, so it can not be kept for an incremental run");
+			PersonalizedPageRank.setTopics(getConf(), PersonalizedPageRank.readTopics(getConf()));
+			iterationMode = PERSONALIZED_MODE;
+		}
+		
+		/// The extrapolation reads the whole page rank files of the iterations, which only the
+		/// standard mode of the MapReduce engine writes
+		if (RankExtrapolation.getPeriod(getConf()) > 0 && (!MAPREDUCE_ENGINE.equals(engine) || !STANDARD_MODE.equals(iterationMode)))
+			throw new IOException("The page ranks are only extrapolated in the standard mode of the MapReduce engine");
+		
+		/// The random walks of the Monte Carlo mode always start from every page with no page rank
+		if (MONTE_CARLO_MODE.equals(iterationMode)) {
+			if (!MAPREDUCE_ENGINE.equals(engine))
+				throw new IOException("The Monte Carlo mode is only run by the MapReduce engine");
+			if (!warmStartPath.isEmpty())
+				throw new IOException("The Monte Carlo mode does not start from earlier page ranks, so it can not run with --warm-start");
+		}
+		
+		/// The rank index is built from the page ranks of the page ids, which the local engine does not write
+		String indexPath = getConf().get(RankIndex.INDEX_PATH, "");
+		if (!indexPath.isEmpty() && LOCAL_ENGINE.equals(engine))
+			throw new IOException("The local engine writes no page ids, so it can not build the rank index");
 		
+		FileSystem fs = FileSystem.get(getConf());
+		if (!warmStartPath.isEmpty() && fs.makeQualified(new Path(warmStartPath)).equals(fs.makeQualified(outputDirectory)))
+			throw new IOException("The output directory is deleted before the run starts, so it can not be the --warm-start directory");
+		
+		/// A resumed run continues from the last stage recorded in the manifest of the earlier run,
+		/// whose outputs are kept in the intermediate directory. Its parameters have to be the same
+		RunManifest manifest = new RunManifest(fs, intermediatePath);
+		boolean resume = getConf().getBoolean(RESUME, false) && manifest.load();
+		if (resume) {
+			manifest.check("input", inputDirectory);
+			manifest.check(ENGINE, engine);
+			manifest.check(ITERATION_MODE, iterationMode);
+			manifest.check(WarmStart.WARM_START_PATH, warmStartPath);
+			manifest.check(GraphPatch.INCREMENTAL_PATH, incrementalPath);
+			manifest.check(PersonalizedPageRank.SEEDS_PATH, seedsPath);
+			manifest.check(PageDictionary.TITLE_PREFIX, getConf().get(PageDictionary.TITLE_PREFIX, "0"));
+			System.out.println("JOB: RESUME ---- STAGE: " + manifest.getStage() + " ITERATION: " + manifest.getIteration());
+		}
+		manifest.set("input", inputDirectory);
+		manifest.set("output", outputDirectory);
+		manifest.set(ENGINE, engine);
+		manifest.set(ITERATION_MODE, iterationMode);
+		manifest.set(WarmStart.WARM_START_PATH, warmStartPath);
+		manifest.set(GraphPatch.INCREMENTAL_PATH, incrementalPath);
+		manifest.set(PersonalizedPageRank.SEEDS_PATH, seedsPath);
+		manifest.set(PageDictionary.TITLE_PREFIX, getConf().get(PageDictionary.TITLE_PREFIX, "0"));
+		manifest.set(MAX_ITERATIONS, getConf().getInt(MAX_ITERATIONS, DEFAULT_MAX_ITERATIONS));
+		manifest.set(TOLERANCE, getConf().getDouble(TOLERANCE, DEFAULT_TOLERANCE));
+		manifest.set("DAMPING_FACTOR", DAMPING_FACTOR);
+		
+		/// Delete the output and intermediate directories if present
 		try {
 			if (fs.exists(outputDirectory))
 				fs.delete(outputDirectory, true);
 			
-			if (fs.exists(intermediatePath))
+			if (!resume && fs.exists(intermediatePath))
 				fs.delete(intermediatePath, true);
-			
-			fs.mkdirs(intermediatePath);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 		
-		/// Running the page count class MapReduce job to get the web page count for each web page
-		/// The output for this is stored in ../intermediate_directory/page_count
-		System.out.println("JOB: PAGE COUNT ---- STATUS: STARTED");
-		Path pageCount = new Path(intermediatePath, "page_count");
-		System.out.println(pageCount.toString());
-		Job pageCountJob = Job.getInstance(initialConf, "PageCount");
-		pageCountJob.setJarByClass(this.getClass());
-		pageCountJob.setMapperClass(WebPageCountMap.class);
-		pageCountJob.setReducerClass(WebPageCountReduce.class);
-		FileInputFormat.addInputPaths(pageCountJob, inputDirectory);
-		FileOutputFormat.setOutputPath(pageCountJob, pageCount);
-		pageCountJob.setOutputKeyClass(Text.class);
-		pageCountJob.setOutputValueClass(IntWritable.class);
-		int success = pageCountJob.waitForCompletion(true) ? 0 : 1;
-		System.out.println("JOB: PAGE COUNT ---- STATUS: ENDED");
+		/// The local engine reads the input and writes the output itself, without any MapReduce job
+		if (LOCAL_ENGINE.equals(engine)) {
+			System.out.println("JOB: LOCAL PAGE RANK ---- STATUS: STARTED");
+			long localStarted = System.currentTimeMillis();
+			int localSuccess = new LocalPageRank(getConf()).run(inputDirectory, outputDirectory);
+			report.addStage("local", 0, localSuccess == 0, System.currentTimeMillis() - localStarted);
+			writeReport(fs, outputDirectory);
+			System.out.println("JOB: LOCAL PAGE RANK ---- STATUS: ENDED");
+			return localSuccess;
+		}
 		
-		if (success == 0) {
-			/// If the page count is successful, then create the link graph
-			/// by running the GraphLink class MapReduce job
-			System.out.println("JOB: GRAPH LINK ---- STATUS: STARTED");
-			Job graphLinkJob = Job.getInstance(getConf(), "GraphLink");
-			Configuration graphLinkConf = graphLinkJob.getConfiguration();
-			Path graph_link = new Path(intermediatePath, "graph_link");
+		fs.mkdirs(intermediatePath);
+		
+		Path graph_link = new Path(intermediatePath, "graph_link");
+		Path graph = new Path(intermediatePath, "graph");
+		int success = 0;
+		long noOfPages;
+		int numReducers;
+		if (resume && manifest.hasCompleted(RunManifest.GRAPH_LINK_STAGE)) {
+			
+			/// The numbers which were read from the GraphLink counters are taken from the manifest
+			noOfPages = Long.parseLong(manifest.get("noOfPages"));
+			numReducers = Integer.parseInt(manifest.get("numReducers"));
+			getConf().set(PageDictionary.OFFSETS, manifest.get(PageDictionary.OFFSETS));
+			System.out.println("JOB: GRAPH LINK ---- STATUS: DONE");
+		} else if (incremental) {
+			
+			/// The link graph of the earlier run is patched with the changed web pages by running the
+			/// GraphPatch class MapReduce job. Its output has the same format as the GraphLink output
+			System.out.println("JOB: GRAPH PATCH ---- STATUS: STARTED");
+			Job graphPatchJob = Job.getInstance(getConf(), "GraphPatch");
 			System.out.println(graph_link.toString());
-			int noOfPages = 0;
+			deleteIfExists(fs, graph_link);
+			graphPatchJob.setJarByClass(this.getClass());
+			MultipleInputs.addInputPath(graphPatchJob, new Path(incrementalPath, GraphPatch.STATE_GRAPH_LINK),
+					SequenceFileInputFormat.class, GraphPatchOldMap.class);
+			for (String changes : inputDirectory.split(","))
+				MultipleInputs.addInputPath(graphPatchJob, new Path(changes),
+						WikiPageInputFormat.isXml(getConf()) ? WikiPageInputFormat.class : TextInputFormat.class, GraphPatchChangeMap.class);
+			graphPatchJob.setReducerClass(GraphPatchReduce.class);
+			PageDictionary.setTitlePartitioner(graphPatchJob);
+			FileOutputFormat.setOutputPath(graphPatchJob, graph_link);
+			graphPatchJob.setMapOutputKeyClass(Text.class);
+			graphPatchJob.setMapOutputValueClass(PageVersion.class);
+			graphPatchJob.setOutputKeyClass(Text.class);
+			graphPatchJob.setOutputValueClass(OutlinkList.class);
+			setSequenceFileOutput(graphPatchJob);
 			
-			/// The number of web pages in the input corpus is calculated by reading the
-			/// output file for web page count MapReduce job "part-r-00000", present in
-			/// intermediate_directory/page_count/part-r-00000
-			try {
-				String l = "";
-				FileSystem fs1 = FileSystem.get(graphLinkConf);
-				Path tempPath = new Path(pageCount, "part-r-00000");
-				BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(fs1.open(tempPath)));
-				while ((l = bufferedReader.readLine()) != null) {
-					if (l.trim().length() > 0) {
-						String[] parts = l.split("\\s+");
-						noOfPages += Integer.parseInt(parts[1].trim());
-					}
-				}
-				bufferedReader.close();
-			} catch (Exception e) {
-				e.printStackTrace();
+			success = runJob(graphPatchJob, "graph_patch", 0) ? 0 : 1;
+			numReducers = graphPatchJob.getNumReduceTasks();
+			noOfPages = 0;
+			
+			if (success == 0) {
+				/// N is the number of titles of the patched link graph
+				Counters patchCounters = graphPatchJob.getCounters();
+				PageDictionary.setOffsets(getConf(), graph_link, numReducers);
+				noOfPages = PageDictionary.getOffsets(getConf())[numReducers];
+				System.out.println("JOB: GRAPH PATCH ---- ADDED: " + patchCounters.findCounter(GraphPatch.PatchCounter.ADDED).getValue()
+						+ " EDITED: " + patchCounters.findCounter(GraphPatch.PatchCounter.EDITED).getValue()
+						+ " REMOVED: " + patchCounters.findCounter(GraphPatch.PatchCounter.REMOVED).getValue());
+				manifest.set("noOfPages", noOfPages);
+				manifest.set("numReducers", numReducers);
+				manifest.set(PageDictionary.OFFSETS, getConf().get(PageDictionary.OFFSETS));
+				manifest.save(RunManifest.GRAPH_LINK_STAGE, inputDirectory, graph_link.toString());
 			}
+			System.out.println("JOB: GRAPH PATCH ---- STATUS: ENDED");
+		} else {
 			
-			/// Number of pages, outlink delimiter, pagerank delimiter is passed to
-			/// the GraphLink MapReduce job
-			graphLinkConf.set("noOfPages", String.valueOf(noOfPages));
-			graphLinkConf.set("OUTLINK_DELIMITER", OUTLINK_DELIMITER);
-			graphLinkConf.set("PAGERANK_DELIMITER", PAGERANK_DELIMITER);
+			/// Create the link graph by running the GraphLink class MapReduce job. The web pages are
+			/// counted by the mappers of the same job, so no separate pass over the input is needed
+			System.out.println("JOB: GRAPH LINK ---- STATUS: STARTED");
+			Job graphLinkJob = Job.getInstance(getConf(), "GraphLink");
+			System.out.println(graph_link.toString());
+			deleteIfExists(fs, graph_link);
 			graphLinkJob.setJarByClass(this.getClass());
 			graphLinkJob.setMapperClass(GraphLinkMap.class);
 			graphLinkJob.setReducerClass(GraphLinkReduce.class);
+			PageDictionary.setTitlePartitioner(graphLinkJob);
 			FileInputFormat.addInputPaths(graphLinkJob, inputDirectory);
+			if (WikiPageInputFormat.isXml(getConf()))
+				graphLinkJob.setInputFormatClass(WikiPageInputFormat.class);
 			FileOutputFormat.setOutputPath(graphLinkJob,  graph_link);
 			graphLinkJob.setOutputKeyClass(Text.class);
-			graphLinkJob.setOutputValueClass(Text.class);
+			graphLinkJob.setOutputValueClass(OutlinkList.class);
 			graphLinkJob.setMapOutputKeyClass(Text.class);
-			graphLinkJob.setMapOutputValueClass(Text.class);
+			graphLinkJob.setMapOutputValueClass(OutlinkList.class);
+			setSequenceFileOutput(graphLinkJob);
 			
-			success = graphLinkJob.waitForCompletion(true) ? 0 : 1;
+			success = runJob(graphLinkJob, "graph_link", 0) ? 0 : 1;
 			System.out.println("JOB: GRAPH LINK ---- STATUS: ENDED");
 			
-			Path pageRankComputationInput = graph_link;
+			numReducers = graphLinkJob.getNumReduceTasks();
+			noOfPages = 0;
+			
 			if (success == 0) {
+				/// The number of titles written by every GraphLink reducer gives the first page id
+				/// of every partition. These offsets are needed by all the remaining jobs. N is the
+				/// number of distinct titles, the pages the iterations hold, as in an incremental run.
+				/// The PAGES counter of GraphLinkMap also counts every repeated title of the input
+				PageDictionary.setOffsets(getConf(), graph_link, numReducers);
+				noOfPages = PageDictionary.getOffsets(getConf())[numReducers];
+				System.out.println("JOB: GRAPH LINK ---- WEB PAGES READ: "
+						+ graphLinkJob.getCounters().findCounter(GraphLink.PageCounter.PAGES).getValue() + " PAGES: " + noOfPages);
+				manifest.set("noOfPages", noOfPages);
+				manifest.set("numReducers", numReducers);
+				manifest.set(PageDictionary.OFFSETS, getConf().get(PageDictionary.OFFSETS));
+				manifest.save(RunManifest.GRAPH_LINK_STAGE, inputDirectory, graph_link.toString());
+			}
+		}
+		
+		if (success == 0) {
+			getConf().set(PageDictionary.GRAPH_LINK_PATH, graph_link.toString());
+			getConf().set(PageDictionary.GRAPH_PATH, graph.toString());
+			getConf().set(PageDictionary.DICTIONARY_PATH, new Path(graph, PageDictionary.DICTIONARY_OUTPUT).toString());
+			getConf().set(PersonalizedPageRank.SEED_IDS_PATH, new Path(intermediatePath, "seeds").toString());
+		}
+		
+		if (success == 0 && resume && manifest.hasCompleted(RunManifest.PAGE_DICTIONARY_STAGE)) {
+			if (personalized)
+				getConf().set(PersonalizedPageRank.SEED_COUNTS, manifest.get(PersonalizedPageRank.SEED_COUNTS));
+			if (manifest.get(HubPartitioning.HUBS) != null) {
+				getConf().set(HubPartitioning.HUBS, manifest.get(HubPartitioning.HUBS));
+				getConf().set(HubPartitioning.HUB_REDUCERS, manifest.get(HubPartitioning.HUB_REDUCERS));
+				getConf().set(HubPartitioning.SALTS, manifest.get(HubPartitioning.SALTS));
+			}
+			System.out.println("JOB: PAGE DICTIONARY ---- STATUS: DONE");
+		} else if (success == 0) {
+			
+			/// The final page ranks of an earlier run are given the page ids of this run, and
+			/// stored in ../intermediate_directory/warm_start for the PageDictionary job below
+			if (!warmStartPath.isEmpty()) {
+				System.out.println("JOB: WARM START ---- STATUS: STARTED");
+				Path warmStart = new Path(intermediatePath, "warm_start");
+				deleteIfExists(fs, warmStart);
+				Job warmStartJob = Job.getInstance(getConf(), "WarmStart");
+				warmStartJob.setJarByClass(this.getClass());
+				warmStartJob.setMapperClass(WarmStartMap.class);
+				warmStartJob.setReducerClass(WarmStartReduce.class);
+				warmStartJob.setNumReduceTasks(numReducers);
+				PageDictionary.setTitlePartitioner(warmStartJob);
+				FileInputFormat.addInputPath(warmStartJob, new Path(warmStartPath));
+				FileOutputFormat.setOutputPath(warmStartJob, warmStart);
+				warmStartJob.setInputFormatClass(KeyValueTextInputFormat.class);
+				warmStartJob.setMapOutputKeyClass(Text.class);
+				warmStartJob.setMapOutputValueClass(DoubleWritable.class);
+				warmStartJob.setOutputKeyClass(IntWritable.class);
+				warmStartJob.setOutputValueClass(DoubleWritable.class);
+				setSequenceFileOutput(warmStartJob);
+				success = runJob(warmStartJob, "warm_start", 0) ? 0 : 1;
+				getConf().set(WarmStart.RANKS_PATH, warmStart.toString());
+				System.out.println("JOB: WARM START ---- STATUS: ENDED");
+			}
+			
+			/// The outlink titles are replaced by page ids in two jobs. The first one looks up the
+			/// page id of every outlink, and the second one collects the outlink ids of every web page
+			/// The output for this is stored in ../intermediate_directory/graph along with the
+			/// dictionary of page ids and titles in ../intermediate_directory/graph/dictionary
+			System.out.println("JOB: PAGE DICTIONARY ---- STATUS: STARTED");
+			System.out.println("NUMBER OF PAGES: " + PageDictionary.getOffsets(getConf())[numReducers]);
+			Path edges = new Path(intermediatePath, "edges");
+			deleteIfExists(fs, edges);
+			deleteIfExists(fs, graph);
+			Job edgeJob = Job.getInstance(getConf(), "PageDictionaryEdges");
+			edgeJob.setJarByClass(this.getClass());
+			edgeJob.setMapperClass(PageDictionaryEdgeMap.class);
+			edgeJob.setReducerClass(PageDictionaryEdgeReduce.class);
+			edgeJob.setNumReduceTasks(numReducers);
+			PageDictionary.setTitlePartitioner(edgeJob);
+			FileInputFormat.addInputPath(edgeJob, graph_link);
+			FileOutputFormat.setOutputPath(edgeJob, edges);
+			edgeJob.setInputFormatClass(SequenceFileInputFormat.class);
+			edgeJob.setMapOutputKeyClass(Text.class);
+			edgeJob.setMapOutputValueClass(Text.class);
+			edgeJob.setOutputKeyClass(Text.class);
+			edgeJob.setOutputValueClass(IntWritable.class);
+			setSequenceFileOutput(edgeJob);
+			
+			/// Hubs are only looked for in the standard mode, the other modes keep every page id
+			/// in the reducer of its partition
+			boolean findHubs = STANDARD_MODE.equals(iterationMode) && HubPartitioning.isEnabled(getConf());
+			if (findHubs)
+				MultipleOutputs.addNamedOutput(edgeJob, HubPartitioning.HUBS_OUTPUT, SequenceFileOutputFormat.class,
+						IntWritable.class, IntWritable.class);
+			else
+				edgeJob.getConfiguration().setInt(HubPartitioning.HUB_INDEGREE, 0);
+			if (success == 0)
+				success = runJob(edgeJob, "dictionary_edges", 0) ? 0 : 1;
+			
+			/// The pages with the most inlinks, counted by the edge job, are given salted keys for
+			/// the standard iterations (see HubPartitioning)
+			if (success == 0 && findHubs) {
+				int hubs = HubPartitioning.setHubs(getConf(), fs, edges, numReducers);
+				manifest.set(HubPartitioning.HUBS, getConf().get(HubPartitioning.HUBS));
+				manifest.set(HubPartitioning.HUB_REDUCERS, getConf().get(HubPartitioning.HUB_REDUCERS));
+				manifest.set(HubPartitioning.SALTS, getConf().get(HubPartitioning.SALTS));
+				System.out.println("JOB: HUB PARTITIONING ---- HUBS: " + hubs + " SALTS: " + getConf().get(HubPartitioning.SALTS));
+			}
+			
+			if (success == 0) {
+				/// Number of pages is passed to the PageDictionary MapReduce job, which sets the
+				/// initial page rank
+				Job dictionaryJob = Job.getInstance(getConf(), "PageDictionaryGraph");
+				dictionaryJob.getConfiguration().set("noOfPages", String.valueOf(noOfPages));
+				dictionaryJob.setJarByClass(this.getClass());
+				dictionaryJob.setMapperClass(Mapper.class);
+				dictionaryJob.setReducerClass(PageDictionaryGraphReduce.class);
+				dictionaryJob.setNumReduceTasks(numReducers);
+				PageDictionary.setTitlePartitioner(dictionaryJob);
+				FileInputFormat.addInputPath(dictionaryJob, new Path(edges, "part-*"));
+				FileOutputFormat.setOutputPath(dictionaryJob, graph);
+				dictionaryJob.setInputFormatClass(SequenceFileInputFormat.class);
+				dictionaryJob.setMapOutputKeyClass(Text.class);
+				dictionaryJob.setMapOutputValueClass(IntWritable.class);
+				dictionaryJob.setOutputKeyClass(IntWritable.class);
+				dictionaryJob.setOutputValueClass(PageRankNode.class);
+				setSequenceFileOutput(dictionaryJob);
+				MultipleOutputs.addNamedOutput(dictionaryJob, PageDictionary.DICTIONARY_OUTPUT,
+						MapFileOutputFormat.class, IntWritable.class, Text.class);
+				success = runJob(dictionaryJob, "dictionary_graph", 0) ? 0 : 1;
+			}
+			
+			/// The seed titles of every topic are given their page ids, and stored in
+			/// ../intermediate_directory/seeds in the same partitions as the graph
+			if (success == 0 && personalized) {
+				System.out.println("JOB: PERSONALIZED SEEDS ---- STATUS: STARTED");
+				Path seeds = new Path(getConf().get(PersonalizedPageRank.SEED_IDS_PATH));
+				deleteIfExists(fs, seeds);
+				Job seedJob = Job.getInstance(getConf(), "PersonalizedSeeds");
+				seedJob.setJarByClass(this.getClass());
+				seedJob.setMapperClass(SeedMap.class);
+				seedJob.setReducerClass(SeedReduce.class);
+				seedJob.setNumReduceTasks(numReducers);
+				PageDictionary.setTitlePartitioner(seedJob);
+				FileInputFormat.addInputPath(seedJob, new Path(seedsPath));
+				FileOutputFormat.setOutputPath(seedJob, seeds);
+				seedJob.setInputFormatClass(KeyValueTextInputFormat.class);
+				seedJob.setMapOutputKeyClass(Text.class);
+				seedJob.setMapOutputValueClass(IntWritable.class);
+				seedJob.setOutputKeyClass(IntWritable.class);
+				seedJob.setOutputValueClass(IntWritable.class);
+				setSequenceFileOutput(seedJob);
+				success = runJob(seedJob, "personalized_seeds", 0) ? 0 : 1;
+				if (success == 0) {
+					long[] seedCounts = PersonalizedPageRank.setSeedCounts(getConf(), seedJob.getCounters());
+					PersonalizedPageRank.checkSeeds(getConf(), seedCounts);
+					manifest.set(PersonalizedPageRank.SEED_COUNTS, getConf().get(PersonalizedPageRank.SEED_COUNTS));
+					System.out.println("JOB: PERSONALIZED SEEDS ---- TOPICS: " + PersonalizedPageRank.getTopicCount(getConf())
+							+ " SEEDS: " + getConf().get(PersonalizedPageRank.SEED_COUNTS));
+				}
+				System.out.println("JOB: PERSONALIZED SEEDS ---- STATUS: ENDED");
+			}
+			if (success == 0)
+				manifest.save(RunManifest.PAGE_DICTIONARY_STAGE, graph_link.toString(), graph.toString());
+			System.out.println("JOB: PAGE DICTIONARY ---- STATUS: ENDED");
+		}
+		
+		Path pageRankComputationInput = graph;
+		if (success == 0 && MAPPED_ENGINE.equals(engine)) {
+			
+			/// The link graph is copied into memory mapped arrays on the local disk of this
+			/// machine, and the iterations are run there instead of as MapReduce jobs. The final
+			/// page ranks are written back to ../intermediate_directory/iteration_mapped
+			System.out.println("JOB: MAPPED PAGE RANK ---- STATUS: STARTED");
+			long mappedStarted = System.currentTimeMillis();
+			MappedGraphStore store = new MappedGraphStore(getConf());
+			System.out.println(store.getDirectory().getAbsolutePath());
+			store.build(getConf(), graph, numReducers);
+			store.computePageRank(getConf());
+			pageRankComputationInput = new Path(intermediatePath, "iteration_mapped");
+			store.writePageRanks(getConf(), pageRankComputationInput);
+			store.delete();
+			report.addStage("mapped", 0, true, System.currentTimeMillis() - mappedStarted);
+			System.out.println("JOB: MAPPED PAGE RANK ---- STATUS: ENDED");
+		} else if (success == 0 && MONTE_CARLO_MODE.equals(iterationMode)) {
+			
+			/// The random walks are moved in rounds until the page rank the walks still moving would
+			/// add is within the tolerance of the total page rank. The rounds are not recorded in the
+			/// manifest, so a resumed run starts the walks again
+			System.out.println("JOB: MONTE CARLO ---- STATUS: STARTED");
+			int maxRounds = getConf().getInt(MAX_ITERATIONS, DEFAULT_MAX_ITERATIONS);
+			double tolerance = getConf().getDouble(TOLERANCE, DEFAULT_TOLERANCE);
+			int walksPerPage = getConf().getInt(MonteCarloPageRank.WALKS, MonteCarloPageRank.DEFAULT_WALKS);
+			long walkers = -1;
+			boolean converged = false;
+			Counters monteCarloCounters = null;
+			for (int r = 0; r < maxRounds && success == 0 && !converged; r++) {
+				Job monteCarloJob = Job.getInstance(getConf(), "MonteCarloPageRank");
+				Configuration monteCarloConf = monteCarloJob.getConfiguration();
+				monteCarloConf.setDouble("DAMPING_FACTOR", DAMPING_FACTOR);
+				monteCarloConf.setInt(MonteCarloPageRank.ROUND, r);
+				monteCarloJob.setJarByClass(this.getClass());
+				
+				/// The first round starts the walks from the pages of the graph, and the later ones
+				/// read the walks which left a partition in the previous round
+				if (r == 0) {
+					monteCarloJob.setMapperClass(MonteCarloStartMap.class);
+					FileInputFormat.addInputPath(monteCarloJob, new Path(graph, "part-*"));
+				} else {
+					monteCarloJob.setMapperClass(Mapper.class);
+					monteCarloConf.set(PageRankSchimmy.RANK_PATH, pageRankComputationInput.toString());
+					FileInputFormat.addInputPath(monteCarloJob, new Path(pageRankComputationInput, MonteCarloPageRank.WALKERS_OUTPUT + "-*"));
+				}
+				monteCarloJob.setCombinerClass(LongSumReducer.class);
+				monteCarloJob.setReducerClass(MonteCarloReduce.class);
+				monteCarloJob.setPartitionerClass(PageIdPartitioner.class);
+				monteCarloJob.setNumReduceTasks(numReducers);
 				
-				/// If the link graph is generated, then the page rank computation is started
-				/// 10 iterations are run here
-				/// Outlink delimiter, page rank delimiter, and damping factor is passed to
-				/// the mapreduce job
-				System.out.println("JOB: PAGE RANK COMPUTATION ---- STATUS: STARTED");
-				for (int i = 0; i < 10; i++) {
-					System.out.println("JOB: PAGE RANK COMPUTATION ---- ITERATION: " + (i + 1) + " STATUS: STARTED");
-					Job pageRankComputationJob = Job.getInstance(getConf(), "PageRankComputation");
-					Configuration pageRankComputationConf = pageRankComputationJob.getConfiguration();
-					pageRankComputationConf.set("OUTLINK_DELIMITER", OUTLINK_DELIMITER);
-					pageRankComputationConf.set("PAGERANK_DELIMITER", PAGERANK_DELIMITER);
-					pageRankComputationConf.setDouble("DAMPING_FACTOR", DAMPING_FACTOR);
-					pageRankComputationJob.setJarByClass(this.getClass());
+				Path roundPath = new Path(intermediatePath, "montecarlo_" + r);
+				System.out.println(roundPath.toString());
+				deleteIfExists(fs, roundPath);
+				FileOutputFormat.setOutputPath(monteCarloJob, roundPath);
+				MultipleOutputs.addNamedOutput(monteCarloJob, MonteCarloPageRank.WALKERS_OUTPUT, SequenceFileOutputFormat.class,
+						IntWritable.class, LongWritable.class);
+				
+				monteCarloJob.setMapOutputKeyClass(IntWritable.class);
+				monteCarloJob.setMapOutputValueClass(LongWritable.class);
+				monteCarloJob.setInputFormatClass(SequenceFileInputFormat.class);
+				monteCarloJob.setOutputKeyClass(IntWritable.class);
+				monteCarloJob.setOutputValueClass(PageRankNode.class);
+				setSequenceFileOutput(monteCarloJob);
+				
+				success = runJob(monteCarloJob, "montecarlo", r + 1) ? 0 : 1;
+				pageRankComputationInput = roundPath;
+				if (success == 0) {
+					monteCarloCounters = monteCarloJob.getCounters();
+					walkers = MonteCarloPageRank.getWalkers(monteCarloCounters);
+					System.out.println("JOB: MONTE CARLO ---- ROUND: " + (r + 1) + " WALKERS: " + walkers);
+					converged = MonteCarloPageRank.getRemainingRank(monteCarloCounters, walksPerPage)
+							<= tolerance * MonteCarloPageRank.getRankMass(monteCarloCounters);
+					
+					/// A round whose walks all stopped writes no walkers files, which the input path
+					/// of the next round would not match
+					if (!converged && !MonteCarloPageRank.hasWalkers(fs, roundPath)) {
+						System.out.println("JOB: MONTE CARLO ---- ROUND: " + (r + 1) + " NO WALKERS LEFT");
+						converged = true;
+					}
+				}
+			}
+			
+			/// Walks still moving after the last round are dropped, which lowers the page ranks
+			/// of the pages they would have visited
+			if (success == 0) {
+				if (walkers > 0)
+					System.out.println("JOB: MONTE CARLO ---- DROPPED WALKERS: " + walkers);
+				System.out.println("JOB: MONTE CARLO ---- ESTIMATED RELATIVE ERROR: "
+						+ MonteCarloPageRank.getRelativeError(monteCarloCounters));
+			}
+			System.out.println("JOB: MONTE CARLO ---- STATUS: ENDED");
+		} else if (success == 0) {
+			
+			/// If the link graph is generated, then the page rank computation is started
+			/// The iterations are run until the page ranks converge or the maximum number of
+			/// iterations is reached
+			/// Damping factor is passed to the mapreduce job
+			int maxIterations = getConf().getInt(MAX_ITERATIONS, DEFAULT_MAX_ITERATIONS);
+			double tolerance = getConf().getDouble(TOLERANCE, DEFAULT_TOLERANCE);
+			
+			/// A resumed run continues from the last iteration with a complete output
+			int firstIteration = 0;
+			boolean converged = false;
+			if (resume && manifest.hasCompleted(RunManifest.ITERATION_STAGE)) {
+				firstIteration = lastCompletedIteration(fs, intermediatePath, manifest.getIteration());
+				converged = firstIteration == manifest.getIteration() && manifest.isConverged();
+				if (firstIteration > 0)
+					pageRankComputationInput = new Path(intermediatePath, "iteration_" + firstIteration);
+				System.out.println("JOB: PAGE RANK COMPUTATION ---- RESUMED AFTER ITERATION: " + firstIteration);
+			}
+			
+			boolean hubs = STANDARD_MODE.equals(iterationMode) && HubPartitioning.HubTable.get(getConf()) != null;
+			
+			/// The relative residual of every iteration and the iterations which were extrapolated,
+			/// the first extrapolation coming at least three iterations after the start or the resume
+			int extrapolationPeriod = RankExtrapolation.getPeriod(getConf());
+			List<Double> relativeResiduals = new ArrayList<Double>();
+			List<Integer> extrapolations = new ArrayList<Integer>();
+			int lastExtrapolation = firstIteration;
+			
+			System.out.println("JOB: PAGE RANK COMPUTATION ---- STATUS: STARTED");
+			for (int i = firstIteration; i < maxIterations && success == 0 && !converged; i++) {
+				System.out.println("JOB: PAGE RANK COMPUTATION ---- ITERATION: " + (i + 1) + " STATUS: STARTED");
+				Job pageRankComputationJob = Job.getInstance(getConf(), "PageRankComputation");
+				Configuration pageRankComputationConf = pageRankComputationJob.getConfiguration();
+				pageRankComputationConf.setDouble("DAMPING_FACTOR", DAMPING_FACTOR);
+				pageRankComputationJob.setJarByClass(this.getClass());
+				pageRankComputationJob.setCombinerClass(PageRankComputationCombine.class);
+				pageRankComputationJob.setPartitionerClass(PageIdPartitioner.class);
+				
+				Path intermediatePath1 = new Path(intermediatePath, "iteration_" + (i + 1));
+				System.out.println(intermediatePath1.toString());
+				deleteIfExists(fs, intermediatePath1);
+				
+				if (SCHIMMY_MODE.equals(iterationMode) || DELTA_MODE.equals(iterationMode) || BLOCK_MODE.equals(iterationMode)
+						|| PERSONALIZED_MODE.equals(iterationMode)) {
+					/// The mappers read the graph instead of the previous iteration. Every map
+					/// task reads one whole graph partition file along with the page rank file of
+					/// the same partition, and there is one reducer per partition. After the first
+					/// iteration of the delta mode, only the changes of the page ranks are sent, and
+					/// the block mode only sends the contributions between partitions. A personalized
+					/// run sends the contributions of all topics in one record
+					if (PERSONALIZED_MODE.equals(iterationMode)) {
+						pageRankComputationJob.setMapperClass(PersonalizedMap.class);
+						pageRankComputationJob.setReducerClass(PersonalizedReduce.class);
+					} else if (BLOCK_MODE.equals(iterationMode)) {
+						pageRankComputationJob.setMapperClass(PageRankBlockMap.class);
+						pageRankComputationJob.setReducerClass(PageRankBlockReduce.class);
+					} else if (DELTA_MODE.equals(iterationMode) && i > 0) {
+						pageRankComputationJob.setMapperClass(PageRankDeltaMap.class);
+						pageRankComputationJob.setReducerClass(PageRankDeltaReduce.class);
+					} else {
+						pageRankComputationJob.setMapperClass(PageRankSchimmyMap.class);
+						pageRankComputationJob.setReducerClass(PageRankSchimmyReduce.class);
+					}
+					pageRankComputationJob.setNumReduceTasks(numReducers);
+					if (i > 0)
+						pageRankComputationConf.set(PageRankSchimmy.RANK_PATH, pageRankComputationInput.toString());
+					FileInputFormat.addInputPath(pageRankComputationJob, new Path(graph, "part-*"));
+					FileInputFormat.setMinInputSplitSize(pageRankComputationJob, Long.MAX_VALUE);
+				} else {
 					pageRankComputationJob.setMapperClass(PageRankComputationMap.class);
 					pageRankComputationJob.setReducerClass(PageRankComputationReduce.class);
 					
-					Path intermediatePath1 = new Path(intermediatePath, "iteration_" + (i + 1));
-					System.out.println(intermediatePath1.toString());
+					/// The contributions to the hubs are sent to their salted keys, and the hubs and
+					/// the partial sums are written apart for the follow-up job
+					if (hubs) {
+						pageRankComputationJob.setPartitionerClass(HubPartitioner.class);
+						MultipleOutputs.addNamedOutput(pageRankComputationJob, HubPartitioning.HUBS_OUTPUT,
+								SequenceFileOutputFormat.class, IntWritable.class, PageRankNode.class);
+						MultipleOutputs.addNamedOutput(pageRankComputationJob, HubPartitioning.PARTIALS_OUTPUT,
+								SequenceFileOutputFormat.class, IntWritable.class, PageRankNode.class);
+					}
 					
 					/// It is important to set this FileInputFormat and FileOutputFormat here,
 					/// since the input of current iteration is the output of previous iteration,
 					/// which is programmatically generated.
 					/// An Exception occurs if this is not set
-					FileInputFormat.addInputPath(pageRankComputationJob, pageRankComputationInput);
-					FileOutputFormat.setOutputPath(pageRankComputationJob, intermediatePath1);
-					
-					pageRankComputationJob.setMapOutputKeyClass(Text.class);
-					pageRankComputationJob.setMapOutputValueClass(Text.class);
-					pageRankComputationJob.setInputFormatClass(KeyValueTextInputFormat.class);
-					pageRankComputationJob.setOutputFormatClass(TextOutputFormat.class);
-					pageRankComputationJob.setOutputKeyClass(Text.class);
-					pageRankComputationJob.setOutputValueClass(Text.class);
-					
-					success = pageRankComputationJob.waitForCompletion(true) ? 0 : 1;
-					
-					/// current iteration output is set as input for the next iteration here
-					pageRankComputationInput = intermediatePath1;
-					
-					System.out.println("JOB: PAGE RANK COMPUTATION ---- ITERATION: " + (i + 1) + " STATUS: ENDED");
+					FileInputFormat.addInputPath(pageRankComputationJob, new Path(pageRankComputationInput, "part-*"));
 				}
-				System.out.println("JOB: PAGE RANK COMPUTATION ---- STATUS: ENDED");
-			}
-			
-			if (success == 0) {
-				
-				System.out.println("JOB: PAGE RANK SORTING ---- STATUS: STARTED");
+				FileOutputFormat.setOutputPath(pageRankComputationJob, intermediatePath1);
 				
-				/// Page rank delimiter is passed to the PageRankSorting class
-				Job pageRankSortingJob = Job.getInstance(getConf(), "PageRankSorting");
-				Configuration pageRankSortingConf = pageRankSortingJob.getConfiguration();
-				pageRankSortingConf.set("PAGERANK_DELIMITER", PAGERANK_DELIMITER);
-				pageRankSortingJob.setJarByClass(this.getClass());
-				pageRankSortingJob.setMapperClass(PageRankSortingMap.class);
-				pageRankSortingJob.setReducerClass(PageRankSortingReduce.class);
-				
-				/// It is important to set this FileInputFormat and FileOutputFormat here,
-				/// since the input of current iteration is the output of previous iteration,
-				/// which is programmatically generated.
-				/// An Exception occurs if this is not set
-				System.out.println(pageRankComputationInput.toString());
-				FileInputFormat.addInputPath(pageRankSortingJob, pageRankComputationInput);
-				FileOutputFormat.setOutputPath(pageRankSortingJob, outputDirectory);
+				pageRankComputationJob.setMapOutputKeyClass(IntWritable.class);
+				pageRankComputationJob.setMapOutputValueClass(PageRankNode.class);
+				pageRankComputationJob.setInputFormatClass(SequenceFileInputFormat.class);
+				pageRankComputationJob.setOutputKeyClass(IntWritable.class);
+				pageRankComputationJob.setOutputValueClass(PageRankNode.class);
+				if (PERSONALIZED_MODE.equals(iterationMode)) {
+					pageRankComputationJob.setCombinerClass(PersonalizedCombine.class);
+					pageRankComputationJob.setMapOutputValueClass(RankVector.class);
+					pageRankComputationJob.setOutputValueClass(RankVector.class);
+				}
+				setSequenceFileOutput(pageRankComputationJob);
 				
-				/// Number of reducers is set to 1
-				pageRankSortingJob.setNumReduceTasks(1);
+				success = runJob(pageRankComputationJob, "iteration", i + 1) ? 0 : 1;
+				Path iterationInput = pageRankComputationInput;
+				Job hubMergeJob = null;
+				if (success == 0 && hubs) {
+					hubMergeJob = runHubMerge(fs, intermediatePath1, i + 1);
+					success = hubMergeJob == null ? 1 : 0;
+				}
 				
-				pageRankSortingJob.setSortComparatorClass(PageRankValueComparator.class);
-				pageRankSortingJob.setMapOutputKeyClass(DoubleWritable.class);
-				pageRankSortingJob.setMapOutputValueClass(Text.class);
-				pageRankSortingJob.setInputFormatClass(KeyValueTextInputFormat.class);
-				pageRankSortingJob.setOutputFormatClass(TextOutputFormat.class);
-				pageRankSortingJob.setOutputKeyClass(Text.class);
-				pageRankSortingJob.setOutputValueClass(DoubleWritable.class);
+				/// current iteration output is set as input for the next iteration here
+				pageRankComputationInput = intermediatePath1;
 				
-				success = pageRankSortingJob.waitForCompletion(true) ? 0 : 1;
+				System.out.println("JOB: PAGE RANK COMPUTATION ---- ITERATION: " + (i + 1) + " STATUS: ENDED");
 				
-				/// If sorting is successful then CLEAN UP task is underway deleting all the directories
-				/// created under intermediate path
 				if (success == 0) {
-					FileSystem fs2 = FileSystem.get(pageRankSortingConf);
-					try {
-						if (fs2.exists(intermediatePath))
-							fs2.delete(intermediatePath, true);
-					} catch (IOException e) {
-						e.printStackTrace();
+					if (DELTA_MODE.equals(iterationMode) && i > 0)
+						System.out.println("JOB: PAGE RANK COMPUTATION ---- ITERATION: " + (i + 1) + " ACTIVE PAGES: "
+								+ PageRankDelta.getActivePages(pageRankComputationJob.getCounters()));
+					if (BLOCK_MODE.equals(iterationMode))
+						System.out.println("JOB: PAGE RANK COMPUTATION ---- ITERATION: " + (i + 1) + " INNER ITERATIONS: "
+								+ PageRankBlock.getInnerIterations(pageRankComputationJob.getCounters()));
+					Counters counters = pageRankComputationJob.getCounters();
+					double l1Residual = Residual.getL1Residual(counters);
+					double maxResidual = Residual.getMaxResidual(getConf(), intermediatePath1);
+					double rankMass = Residual.getRankMass(counters);
+					if (hubMergeJob != null) {
+						/// The residuals of the hubs are reported by the follow-up job, whose side file was
+						/// moved into the iteration directory along with the page ranks of the hubs
+						Counters hubCounters = hubMergeJob.getCounters();
+						l1Residual += Residual.getL1Residual(hubCounters);
+						rankMass += Residual.getRankMass(hubCounters);
+					}
+					converged = hasConverged(i + 1, l1Residual, maxResidual, rankMass, tolerance);
+					relativeResiduals.add(rankMass > 0 ? l1Residual / rankMass : 0);
+					manifest.set("iteration", i + 1);
+					manifest.set("converged", converged);
+					manifest.save(RunManifest.ITERATION_STAGE, iterationInput.toString(), intermediatePath1.toString());
+					
+					/// The next iteration starts from the extrapolated page ranks. The manifest keeps the
+					/// plain output of this iteration, which a resumed run starts from
+					if (!converged && extrapolationPeriod > 0 && (i + 1) % extrapolationPeriod == 0
+							&& i + 1 - lastExtrapolation >= RankExtrapolation.MIN_PERIOD && i + 1 < maxIterations) {
+						Path extrapolatedPath = runExtrapolation(fs, intermediatePath, i + 1);
+						success = extrapolatedPath == null ? 1 : 0;
+						if (extrapolatedPath != null) {
+							pageRankComputationInput = extrapolatedPath;
+							lastExtrapolation = i + 1;
+							extrapolations.add(i + 1);
+						}
 					}
 				}
-				
-				System.out.println("JOB: PAGE RANK SORTING ---- STATUS: ENDED");
+			}
+			System.out.println("JOB: PAGE RANK COMPUTATION ---- STATUS: ENDED");
+			
+			/// The iterations of a plain run are estimated from the residuals (see RankExtrapolation).
+			/// The residuals of a resumed run only start at the resume, so there is no estimate
+			if (converged && !extrapolations.isEmpty() && firstIteration == 0) {
+				int iterations = relativeResiduals.size();
+				int plainIterations = RankExtrapolation.estimatePlainIterations(relativeResiduals, extrapolations, tolerance,
+						DAMPING_FACTOR);
+				System.out.println("JOB: EXTRAPOLATION ---- EXTRAPOLATIONS: " + extrapolations.size() + " ITERATIONS: " + iterations
+						+ " ESTIMATED PLAIN ITERATIONS: " + (plainIterations < 0 ? "UNKNOWN" : Integer.toString(plainIterations))
+						+ " ESTIMATED ITERATIONS SAVED: " + (plainIterations < 0 ? "UNKNOWN" : Integer.toString(plainIterations - iterations)));
+			}
+		}
+		
+		if (success == 0 && personalized) {
+			
+			/// The page rank vectors are split into one page rank file per topic, which are sorted
+			/// one by one into OUT_DIR/<topic>
+			System.out.println("JOB: PERSONALIZED SPLIT ---- STATUS: STARTED");
+			Path personalizedPath = new Path(intermediatePath, "personalized");
+			deleteIfExists(fs, personalizedPath);
+			Job splitJob = Job.getInstance(getConf(), "PersonalizedSplit");
+			splitJob.setJarByClass(this.getClass());
+			splitJob.setMapperClass(VectorSplitMap.class);
+			splitJob.setNumReduceTasks(0);
+			FileInputFormat.addInputPath(splitJob, new Path(pageRankComputationInput, "part-*"));
+			FileInputFormat.setMinInputSplitSize(splitJob, Long.MAX_VALUE);
+			FileOutputFormat.setOutputPath(splitJob, personalizedPath);
+			splitJob.setInputFormatClass(SequenceFileInputFormat.class);
+			splitJob.setOutputKeyClass(IntWritable.class);
+			splitJob.setOutputValueClass(PageRankNode.class);
+			setSequenceFileOutput(splitJob);
+			LazyOutputFormat.setOutputFormatClass(splitJob, SequenceFileOutputFormat.class);
+			success = runJob(splitJob, "personalized_split", 0) ? 0 : 1;
+			System.out.println("JOB: PERSONALIZED SPLIT ---- STATUS: ENDED");
+			
+			String[] topics = PersonalizedPageRank.getTopics(getConf());
+			for (int t = 0; t < topics.length; t++) {
+				String topic = PersonalizedPageRank.topicName(t);
+				if (success == 0) {
+					System.out.println("JOB: PAGE RANK SORTING ---- TOPIC: " + topic + " " + topics[t]);
+					success = runPageRankSorting(new Path(personalizedPath, topic), new Path(outputDirectory, topic), intermediatePath, numReducers);
+				}
+				if (success == 0 && !indexPath.isEmpty())
+					success = runRankIndex(new Path(personalizedPath, topic), new File(indexPath, topic), intermediatePath, numReducers);
+			}
+			if (success == 0)
+				PersonalizedPageRank.writeTopics(getConf(), fs, new Path(outputDirectory, PersonalizedPageRank.TOPICS_FILE));
+		} else if (success == 0) {
+			success = runPageRankSorting(pageRankComputationInput, outputDirectory, intermediatePath, numReducers);
+			if (success == 0 && !indexPath.isEmpty())
+				success = runRankIndex(pageRankComputationInput, new File(indexPath), intermediatePath, numReducers);
+		}
+		
+		if (success == 0) {
+			
+			/// The link graph and the output are kept in the state directory for a later incremental
+			/// run. They replace the ones of the earlier run only once this run has succeeded
+			String statePath = getConf().get(GraphPatch.STATE_PATH, "");
+			if (!statePath.isEmpty()) {
+				Path stateDirectory = new Path(statePath);
+				Path stateGraphLink = new Path(stateDirectory, GraphPatch.STATE_GRAPH_LINK);
+				Path stateRanks = new Path(stateDirectory, GraphPatch.STATE_RANKS);
+				fs.mkdirs(stateDirectory);
+				deleteIfExists(fs, stateGraphLink);
+				if (!fs.rename(graph_link, stateGraphLink))
+					throw new IOException("Could not move " + graph_link + " to " + stateGraphLink);
+				deleteIfExists(fs, stateRanks);
+				FileUtil.copy(fs, outputDirectory, fs, stateRanks, false, getConf());
+				System.out.println("JOB: SAVE STATE ---- " + stateDirectory.toString());
+			}
+			
+			/// If sorting is successful then CLEAN UP task is underway deleting all the directories
+			/// created under intermediate path
+			try {
+				if (fs.exists(intermediatePath))
+					fs.delete(intermediatePath, true);
+			} catch (IOException e) {
+				e.printStackTrace();
 			}
 		}
 		
+		/// The run report is written whether the run succeeded or not
+		writeReport(fs, outputDirectory);
 		return success;
 	}
+	
+	/// Sorts the page ranks of the given iteration output into the output directory, in the output
+	/// mode set by pagerank.output.mode
+	private int runPageRankSorting(Path pageRankComputationInput, Path outputDirectory, Path intermediatePath, int numReducers)
+			throws IOException, InterruptedException, ClassNotFoundException {
+		
+		System.out.println("JOB: PAGE RANK SORTING ---- STATUS: STARTED");
+		
+		Job pageRankSortingJob = Job.getInstance(getConf(), "PageRankSorting");
+		pageRankSortingJob.setJarByClass(this.getClass());
+		String outputMode = getConf().get(OUTPUT_MODE, SORT_OUTPUT);
+		if (TOP_K_OUTPUT.equals(outputMode)) {
+			pageRankSortingJob.setMapperClass(PageRankTopKMap.class);
+			pageRankSortingJob.setReducerClass(PageRankTopKReduce.class);
+		} else {
+			pageRankSortingJob.setMapperClass(PageRankSortingMap.class);
+			pageRankSortingJob.setReducerClass(PageRankSortingReduce.class);
+		}
+		
+		/// It is important to set this FileInputFormat and FileOutputFormat here,
+		/// since the input of current iteration is the output of previous iteration,
+		/// which is programmatically generated.
+		/// An Exception occurs if this is not set
+		System.out.println(pageRankComputationInput.toString());
+		FileInputFormat.addInputPath(pageRankSortingJob, new Path(pageRankComputationInput, "part-*"));
+		FileOutputFormat.setOutputPath(pageRankSortingJob, outputDirectory);
+		
+		pageRankSortingJob.setSortComparatorClass(PageRankValueComparator.class);
+		pageRankSortingJob.setMapOutputKeyClass(DoubleWritable.class);
+		pageRankSortingJob.setMapOutputValueClass(Text.class);
+		pageRankSortingJob.setInputFormatClass(SequenceFileInputFormat.class);
+		
+		/// Number of reducers is set to 1, unless the page rank ranges of many reducers are
+		/// sampled from the input in the total order output mode
+		pageRankSortingJob.setNumReduceTasks(1);
+		int outputReducers = getConf().getInt(OUTPUT_REDUCERS, numReducers);
+		if (TOTAL_ORDER_OUTPUT.equals(outputMode) && outputReducers > 1) {
+			Path partitionFile = new Path(intermediatePath, "sort_partitions");
+			outputReducers = PageRankSorting.writePartitionFile(pageRankSortingJob, partitionFile, outputReducers);
+			pageRankSortingJob.setNumReduceTasks(outputReducers);
+			pageRankSortingJob.setPartitionerClass(TotalOrderPartitioner.class);
+			System.out.println("JOB: PAGE RANK SORTING ---- REDUCERS: " + outputReducers);
+		}
+		pageRankSortingJob.setOutputFormatClass(TextOutputFormat.class);
+		pageRankSortingJob.setOutputKeyClass(Text.class);
+		pageRankSortingJob.setOutputValueClass(DoubleWritable.class);
+		
+		int success = runJob(pageRankSortingJob, "sorting", 0) ? 0 : 1;
+		System.out.println("JOB: PAGE RANK SORTING ---- STATUS: ENDED");
+		return success;
+	}
+	
+	/// Sorts the titles of the given page ranks over the reducers, in the title ranges sampled from the
+	/// dictionary, and writes the rank index to the local index directory (see RankIndex)
+	private int runRankIndex(Path pageRankComputationInput, File indexDirectory, Path intermediatePath, int numReducers)
+			throws IOException, InterruptedException, ClassNotFoundException {
+		
+		System.out.println("JOB: RANK INDEX ---- STATUS: STARTED");
+		Path indexTitlesPath = new Path(intermediatePath, "index_titles");
+		FileSystem fs = FileSystem.get(getConf());
+		deleteIfExists(fs, indexTitlesPath);
+		Job rankIndexJob = Job.getInstance(getConf(), "RankIndex");
+		rankIndexJob.setJarByClass(this.getClass());
+		rankIndexJob.setMapperClass(RankIndexMap.class);
+		int indexReducers = RankIndex.writePartitionFile(rankIndexJob.getConfiguration(),
+				new Path(intermediatePath, "index_partitions"), numReducers);
+		rankIndexJob.setNumReduceTasks(indexReducers);
+		rankIndexJob.setPartitionerClass(TotalOrderPartitioner.class);
+		System.out.println("JOB: RANK INDEX ---- REDUCERS: " + indexReducers);
+		FileInputFormat.addInputPath(rankIndexJob, new Path(pageRankComputationInput, "part-*"));
+		FileOutputFormat.setOutputPath(rankIndexJob, indexTitlesPath);
+		rankIndexJob.setInputFormatClass(SequenceFileInputFormat.class);
+		rankIndexJob.setOutputKeyClass(Text.class);
+		rankIndexJob.setOutputValueClass(DoubleWritable.class);
+		setSequenceFileOutput(rankIndexJob);
+		if (!runJob(rankIndexJob, "rank_index", 0))
+			return 1;
+		
+		long started = System.currentTimeMillis();
+		System.out.println(indexDirectory.getAbsolutePath());
+		int noOfPages = RankIndex.build(getConf(), indexTitlesPath, indexReducers, indexDirectory);
+		report.addStage("rank_index_build", 0, true, System.currentTimeMillis() - started);
+		fs.delete(indexTitlesPath, true);
+		System.out.println("JOB: RANK INDEX ---- PAGES: " + noOfPages);
+		System.out.println("JOB: RANK INDEX ---- STATUS: ENDED");
+		return 0;
+	}
+	
+	/// Runs a job and adds its metrics to the run report
+	private boolean runJob(Job job, String stage, int iteration) throws IOException, InterruptedException, ClassNotFoundException {
+		long started = System.currentTimeMillis();
+		boolean completed = job.waitForCompletion(true);
+		report.add(stage, iteration, job, completed, System.currentTimeMillis() - started);
+		return completed;
+	}
+	
+	/// Writes the run report to pagerank.report.path, or to the output directory
+	private void writeReport(FileSystem fs, Path outputDirectory) throws IOException {
+		Path reportDirectory = new Path(getConf().get(RunReport.REPORT_PATH, outputDirectory.toString()));
+		report.write(fs, reportDirectory);
+		System.out.println("JOB: RUN REPORT ---- " + new Path(reportDirectory, RunReport.JSON_FILE).toString());
+	}
+	
+	/// Extrapolates the page ranks of the given iteration from its output and the outputs of the two
+	/// iterations before, with a map-only job (see RankExtrapolation). Returns the directory of the
+	/// extrapolated page ranks, or null if the job failed
+	private Path runExtrapolation(FileSystem fs, Path intermediatePath, int iteration) throws Exception {
+		System.out.println("JOB: EXTRAPOLATION ---- ITERATION: " + iteration + " STATUS: STARTED");
+		Path iterationPath = new Path(intermediatePath, "iteration_" + iteration);
+		Path extrapolatedPath = new Path(intermediatePath, "iteration_" + iteration + "_extrapolated");
+		deleteIfExists(fs, extrapolatedPath);
+		Job extrapolationJob = Job.getInstance(getConf(), "RankExtrapolation");
+		Configuration extrapolationConf = extrapolationJob.getConfiguration();
+		extrapolationConf.setDouble("DAMPING_FACTOR", DAMPING_FACTOR);
+		extrapolationConf.set(RankExtrapolation.PREVIOUS_PATH, new Path(intermediatePath, "iteration_" + (iteration - 1)).toString());
+		extrapolationConf.set(RankExtrapolation.OLDER_PATH, new Path(intermediatePath, "iteration_" + (iteration - 2)).toString());
+		extrapolationJob.setJarByClass(this.getClass());
+		extrapolationJob.setMapperClass(RankExtrapolationMap.class);
+		extrapolationJob.setNumReduceTasks(0);
+		FileInputFormat.addInputPath(extrapolationJob, new Path(iterationPath, "part-*"));
+		FileInputFormat.setMinInputSplitSize(extrapolationJob, Long.MAX_VALUE);
+		FileOutputFormat.setOutputPath(extrapolationJob, extrapolatedPath);
+		extrapolationJob.setInputFormatClass(SequenceFileInputFormat.class);
+		extrapolationJob.setOutputKeyClass(IntWritable.class);
+		extrapolationJob.setOutputValueClass(PageRankNode.class);
+		setSequenceFileOutput(extrapolationJob);
+		boolean extrapolated = runJob(extrapolationJob, "extrapolation", iteration);
+		if (extrapolated)
+			System.out.println("JOB: EXTRAPOLATION ---- ITERATION: " + iteration
+					+ " EXTRAPOLATED PAGES: " + RankExtrapolation.getExtrapolated(extrapolationJob.getCounters())
+					+ " KEPT PAGES: " + RankExtrapolation.getKept(extrapolationJob.getCounters()));
+		System.out.println("JOB: EXTRAPOLATION ---- ITERATION: " + iteration + " STATUS: ENDED");
+		return extrapolated ? extrapolatedPath : null;
+	}
+	
+	/// Adds up the partial sums of the hubs written by an iteration, with one reducer since there are
+	/// only a few records per hub, and moves the page ranks of the hubs into the iteration directory.
+	/// Returns null if the job failed
+	private Job runHubMerge(FileSystem fs, Path iterationPath, int iteration) throws Exception {
+		System.out.println("JOB: HUB MERGE ---- STATUS: STARTED");
+		Path hubMergePath = new Path(iterationPath.getParent(), iterationPath.getName() + "_hubs");
+		deleteIfExists(fs, hubMergePath);
+		Job hubMergeJob = Job.getInstance(getConf(), "HubMerge");
+		Configuration hubMergeConf = hubMergeJob.getConfiguration();
+		hubMergeConf.setDouble("DAMPING_FACTOR", DAMPING_FACTOR);
+		hubMergeConf.unset(HubPartitioning.HUBS);
+		hubMergeJob.setJarByClass(this.getClass());
+		hubMergeJob.setMapperClass(Mapper.class);
+		hubMergeJob.setReducerClass(PageRankComputationReduce.class);
+		hubMergeJob.setNumReduceTasks(1);
+		FileInputFormat.addInputPath(hubMergeJob, new Path(iterationPath,
+				"{" + HubPartitioning.HUBS_OUTPUT + "," + HubPartitioning.PARTIALS_OUTPUT + "}-*"));
+		FileOutputFormat.setOutputPath(hubMergeJob, hubMergePath);
+		hubMergeJob.setInputFormatClass(SequenceFileInputFormat.class);
+		hubMergeJob.setOutputKeyClass(IntWritable.class);
+		hubMergeJob.setOutputValueClass(PageRankNode.class);
+		setSequenceFileOutput(hubMergeJob);
+		boolean merged = runJob(hubMergeJob, "hub_merge", iteration);
+		
+		Path hubRanks = new Path(hubMergePath, PageDictionary.partitionName(0));
+		if (merged && !fs.rename(hubRanks, new Path(iterationPath, "part-hubs-r-00000")))
+			throw new IOException("Could not move " + hubRanks + " to " + iterationPath);
+		Path hubCounts = new Path(new Path(hubMergePath, TaskCounts.COUNTS_DIRECTORY), PageDictionary.partitionName(0));
+		if (merged && !fs.rename(hubCounts, new Path(new Path(iterationPath, TaskCounts.COUNTS_DIRECTORY), "part-hubs-r-00000")))
+			throw new IOException("Could not move " + hubCounts + " to " + iterationPath);
+		fs.delete(hubMergePath, true);
+		System.out.println("JOB: HUB MERGE ---- STATUS: ENDED");
+		return merged ? hubMergeJob : null;
+	}
+	
+	/// The residuals reported by the reducers of an iteration are logged here. The page ranks have
+	/// converged once the L1 residual relative to the total page rank is below the tolerance
+	static boolean hasConverged(int iteration, double l1Residual, double maxResidual, double rankMass, double tolerance) {
+		double relativeResidual = rankMass > 0 ? l1Residual / rankMass : 0;
+		
+		System.out.println("JOB: PAGE RANK COMPUTATION ---- ITERATION: " + iteration + " L1 RESIDUAL: " + l1Residual
+				+ " LINF RESIDUAL: " + maxResidual + " RANK MASS: " + rankMass + " RELATIVE RESIDUAL: " + relativeResidual);
+		return relativeResidual < tolerance;
+	}
+	
+	/// Finds the last iteration, up to the one recorded in the manifest, whose output was completely
+	/// written. Returns 0 if there is none, in which case the iterations start from the graph
+	private static int lastCompletedIteration(FileSystem fs, Path intermediatePath, int iteration) throws IOException {
+		for (int i = iteration; i > 0; i--)
+			if (fs.exists(new Path(new Path(intermediatePath, "iteration_" + i), FileOutputCommitter.SUCCEEDED_FILE_NAME)))
+				return i;
+		return 0;
+	}
+	
+	/// Deletes the output of a job which an interrupted earlier run may have left behind
+	private static void deleteIfExists(FileSystem fs, Path path) throws IOException {
+		if (fs.exists(path))
+			fs.delete(path, true);
+	}
+	
+	/// The link graph and the outputs of all iterations are written as block compressed
+	/// SequenceFiles of (page, PageRankNode), so that the next job reads the binary records
+	/// back without splitting strings or parsing doubles
+	private static void setSequenceFileOutput(Job job) {
+		job.setOutputFormatClass(SequenceFileOutputFormat.class);
+		FileOutputFormat.setCompressOutput(job, true);
+		SequenceFileOutputFormat.setOutputCompressionType(job, CompressionType.BLOCK);
+	}
 
 }
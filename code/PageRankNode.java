@@ -0,0 +1,178 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+
+/// PageRankNode is the record passed between PageDictionary and every PageRankComputation iteration.
+/// A STRUCTURE record holds the page rank of a web page along with the ids of its outlinks, and a
+/// CONTRIBUTION record holds only the page rank value one web page passes on to one of its outlinks.
+/// A RANK record, written by the iterations which keep the graph structure in place, holds the page
+/// rank of a web page along with its change in the iteration which wrote it. The type tag is
+/// written first so that the reducer can tell the records apart without parsing.
+public class PageRankNode implements Writable {
+
+	public static final byte STRUCTURE = 0;
+	public static final byte CONTRIBUTION = 1;
+	public static final byte RANK = 2;
+
+	private byte type;
+	private double rank;
+	private double change;
+	private int[] outlinks = new int[8];
+	private int outlinkCount;
+
+	/// Number of outlinks the web page had in the corpus. This is larger than outlinkCount when
+	/// some of the outlinks point to titles which are not pages of the corpus, and it is kept so
+	/// that the page rank is still divided among all the outlinks of the page
+	private int outDegree;
+
+	public PageRankNode() {
+		this.type = STRUCTURE;
+	}
+
+	/// Turns this record into a STRUCTURE record with the given rank and no outlinks.
+	/// Outlinks are appended afterwards using addOutlink
+	public void setStructure(double rank) {
+		this.type = STRUCTURE;
+		this.rank = rank;
+		this.outlinkCount = 0;
+		this.outDegree = 0;
+	}
+
+	/// Turns this record into a CONTRIBUTION record carrying the given page rank value
+	public void setContribution(double rank) {
+		this.type = CONTRIBUTION;
+		this.rank = rank;
+		this.outlinkCount = 0;
+		this.outDegree = 0;
+	}
+
+	/// Turns this record into a RANK record with the given page rank and its last change
+	public void setPageRank(double rank, double change) {
+		this.type = RANK;
+		this.rank = rank;
+		this.change = change;
+		this.outlinkCount = 0;
+		this.outDegree = 0;
+	}
+
+	public void addOutlink(int outlink) {
+		if (outlinkCount == outlinks.length)
+			outlinks = Arrays.copyOf(outlinks, outlinkCount * 2);
+		outlinks[outlinkCount++] = outlink;
+		if (outDegree < outlinkCount)
+			outDegree = outlinkCount;
+	}
+
+	/// Sorts the outlink ids, which lets write() store them as small gaps
+	public void sortOutlinks() {
+		Arrays.sort(outlinks, 0, outlinkCount);
+	}
+
+	public boolean isStructure() {
+		return type == STRUCTURE;
+	}
+
+	public double getRank() {
+		return rank;
+	}
+
+	public void setRank(double rank) {
+		this.rank = rank;
+	}
+
+	/// The change of the page rank in the iteration which wrote this RANK record, 0 for the others
+	public double getChange() {
+		return type == RANK ? change : 0;
+	}
+
+	public int getOutlinkCount() {
+		return outlinkCount;
+	}
+
+	public int getOutlink(int i) {
+		return outlinks[i];
+	}
+
+	public int getOutDegree() {
+		return outDegree;
+	}
+
+	public void setOutDegree(int outDegree) {
+		this.outDegree = Math.max(outDegree, outlinkCount);
+	}
+
+	/// Copies the type, rank and outlinks of the other record into this one. This is needed in
+	/// the reducer since Hadoop reuses the same value object while iterating over the values
+	public void set(PageRankNode other) {
+		this.type = other.type;
+		this.rank = other.rank;
+		this.change = other.change;
+		if (outlinks.length < other.outlinkCount)
+			outlinks = new int[other.outlinkCount];
+		System.arraycopy(other.outlinks, 0, outlinks, 0, other.outlinkCount);
+		this.outlinkCount = other.outlinkCount;
+		this.outDegree = other.outDegree;
+	}
+
+	@Override
+	public void write(DataOutput out) throws IOException {
+		out.writeByte(type);
+		out.writeDouble(rank);
+		if (type == RANK)
+			out.writeDouble(change);
+
+		/// Only the STRUCTURE records carry the outlinks. The ids are written as the gap from the
+		/// previous id, which keeps them to one or two bytes each once they are sorted
+		if (type == STRUCTURE) {
+			WritableUtils.writeVInt(out, outlinkCount);
+			WritableUtils.writeVInt(out, outDegree - outlinkCount);
+			int previous = 0;
+			for (int i = 0; i < outlinkCount; i++) {
+				WritableUtils.writeVInt(out, outlinks[i] - previous);
+				previous = outlinks[i];
+			}
+		}
+	}
+
+	@Override
+	public void readFields(DataInput in) throws IOException {
+		type = in.readByte();
+		rank = in.readDouble();
+		change = type == RANK ? in.readDouble() : 0;
+		outlinkCount = 0;
+		outDegree = 0;
+
+		if (type == STRUCTURE) {
+			int count = WritableUtils.readVInt(in);
+			int missing = WritableUtils.readVInt(in);
+			if (outlinks.length < count)
+				outlinks = new int[count];
+			int previous = 0;
+			for (int i = 0; i < count; i++) {
+				previous += WritableUtils.readVInt(in);
+				outlinks[i] = previous;
+			}
+			outlinkCount = count;
+			outDegree = count + missing;
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(rank);
+		for (int i = 0; i < outlinkCount; i++)
+			sb.append(i == 0 ? "\t" : " ").append(outlinks[i]);
+		return sb.toString();
+	}
+}
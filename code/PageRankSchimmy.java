@@ -0,0 +1,148 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+
+/// PageRankSchimmy is the iteration used when pagerank.iteration.mode is "schimmy". The graph
+/// structure written by PageDictionary is never shuffled or written again. It stays in
+/// ../intermediate_directory/graph, where part-r-<k> holds the page ids of partition k in sorted
+/// order. Every iteration only writes the page rank of every page id along with its change, as a
+/// RANK record, partitioned and sorted the same way, so part-r-<k> of the graph and part-r-<k> of
+/// the page ranks can be read side by side. Only the page rank contributions go through the shuffle.
+public class PageRankSchimmy {
+
+	/// Configuration key holding the directory of the page ranks written by the previous iteration.
+	/// It is not set in the first iteration, where the page ranks are read from the graph itself
+	public static final String RANK_PATH = "pagerank.schimmy.rank.path";
+
+	/// Reads the next record of a partition file and checks that it holds the expected page id
+	static void readPage(SequenceFile.Reader reader, IntWritable pageId, PageRankNode node, int expected) throws IOException {
+		if (!reader.next(pageId, node) || pageId.get() != expected)
+			throw new IOException("Page rank file is not in step with the graph at page id " + expected);
+	}
+
+	/// This Mapper class reads one whole graph partition file, along with the page rank file of the
+	/// same partition from the previous iteration. It only emits the page rank contributions
+	public static class PageRankSchimmyMap extends Mapper<IntWritable, PageRankNode, IntWritable, PageRankNode> {
+
+		private SequenceFile.Reader ranks;
+		private final IntWritable rankKey = new IntWritable();
+		private final PageRankNode rankNode = new PageRankNode();
+		private final IntWritable outlinkKey = new IntWritable();
+		private final PageRankNode contribution = new PageRankNode();
+
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			Configuration conf = context.getConfiguration();
+			String rankPath = conf.get(RANK_PATH);
+			if (rankPath != null) {
+				String partition = ((FileSplit) context.getInputSplit()).getPath().getName();
+				ranks = new SequenceFile.Reader(conf, SequenceFile.Reader.file(new Path(rankPath, partition)));
+			}
+		}
+
+		public void map(IntWritable page, PageRankNode prOutlinks, Context context) throws IOException, InterruptedException {
+
+			/// The page rank is taken from the previous iteration, or from the graph in the first one
+			double pageRank = prOutlinks.getRank();
+			if (ranks != null) {
+				readPage(ranks, rankKey, rankNode, page.get());
+				pageRank = rankNode.getRank();
+			}
+
+			int numberOfOutlinks = prOutlinks.getOutlinkCount();
+			if (numberOfOutlinks > 0) {
+				contribution.setContribution(pageRank / prOutlinks.getOutDegree());
+				for (int i = 0; i < numberOfOutlinks; i++) {
+					outlinkKey.set(prOutlinks.getOutlink(i));
+					context.write(outlinkKey, contribution);
+				}
+			}
+		}
+
+		@Override
+		protected void cleanup(Context context) throws IOException, InterruptedException {
+			if (ranks != null)
+				ranks.close();
+		}
+	}
+
+	/// This Reducer class walks through every page id of its partition in order. Page ids are dense,
+	/// so the page ids which did not receive any contribution are the gaps between the keys. The old
+	/// page rank of every page id is read from the same partition of the previous iteration, and only
+	/// the new page rank and its change are written
+	public static class PageRankSchimmyReduce extends Reducer<IntWritable, PageRankNode, IntWritable, PageRankNode> {
+
+		private SequenceFile.Reader previous;
+		private final IntWritable pageId = new IntWritable();
+		private final PageRankNode node = new PageRankNode();
+		private final PageRankComputation.Residual residual = new PageRankComputation.Residual();
+		protected double DAMPING_FACTOR;
+		private int nextPageId;
+		private int endPageId;
+
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			Configuration conf = context.getConfiguration();
+			DAMPING_FACTOR = conf.getDouble("DAMPING_FACTOR", PageRankDriver.DAMPING_FACTOR);
+
+			int partition = context.getTaskAttemptID().getTaskID().getId();
+			int[] offsets = PageDictionary.getOffsets(conf);
+			nextPageId = offsets[partition];
+			endPageId = offsets[partition + 1];
+
+			String previousPath = conf.get(RANK_PATH, conf.get(PageDictionary.GRAPH_PATH));
+			previous = PageDictionary.openPartition(conf, new Path(previousPath), partition);
+		}
+
+		public void reduce(IntWritable page, Iterable<PageRankNode> it, Context context) throws IOException, InterruptedException {
+			while (nextPageId < page.get())
+				writePage(0, context);
+
+			double newPageRank = 0;
+			for (PageRankNode value : it)
+				newPageRank += value.getRank();
+			writePage(newPageRank, context);
+		}
+
+		private void writePage(double newPageRank, Context context) throws IOException, InterruptedException {
+			readPage(previous, pageId, node, nextPageId);
+
+			double pageRankAfterDamping = update(node.getRank(), newPageRank);
+			residual.add(node.getRank(), pageRankAfterDamping);
+
+			node.setPageRank(pageRankAfterDamping, change(node.getRank(), pageRankAfterDamping, node.getChange()));
+			context.write(pageId, node);
+			nextPageId++;
+		}
+
+		/// pr = (1 - d) + d * (new page rank value)
+		protected double update(double oldPageRank, double newPageRank) {
+			return (1 - DAMPING_FACTOR) + DAMPING_FACTOR * newPageRank;
+		}
+
+		/// The change written along with the new page rank, given the change of the previous record
+		protected double change(double oldPageRank, double newPageRank, double previousChange) {
+			return newPageRank - oldPageRank;
+		}
+
+		@Override
+		protected void cleanup(Context context) throws IOException, InterruptedException {
+			while (nextPageId < endPageId)
+				writePage(0, context);
+			previous.close();
+			residual.report(context);
+		}
+	}
+}
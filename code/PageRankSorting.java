@@ -5,35 +5,76 @@
 package org.myorg;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.SequenceFile;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableComparable;
 import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.mapreduce.InputFormat;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.partition.TotalOrderPartitioner;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.apache.hadoop.util.ReflectionUtils;
 
 /// PageRankSorting consists of a Mapper and a Reducer class. This class sorts the calculated
-/// page ranks in descending order using a comparator
+/// page ranks in descending order using a comparator, and looks the titles of the page ids up again.
+/// The top K pages can be written instead of all pages, and all pages can be sorted by many reducers
+/// writing part files which follow each other in page rank order (see PageRankDriver.OUTPUT_MODE)
 public class PageRankSorting {
 	
-	/// This Mapper class gets the page info and the page rank of the page along with the outlinks
-	/// separated by the page rank delimiter
-	public static class PageRankSortingMap extends Mapper<Text, Text, DoubleWritable, Text> {
+	/// Number of pages written in the top K output mode, eg: -D pagerank.output.topk=100
+	public static final String TOP_K = "pagerank.output.topk";
+	public static final int DEFAULT_TOP_K = 1000;
+	
+	/// Number of page ranks sampled to pick the page rank ranges of the reducers in the total order
+	/// output mode, eg: -D pagerank.output.samples=100000
+	public static final String SAMPLES = "pagerank.output.samples";
+	public static final int DEFAULT_SAMPLES = 10000;
+	
+	/// Number of input splits the samples are read from
+	private static final int MAX_SAMPLED_SPLITS = 10;
+	
+
+	/// This Mapper class gets the page id and the graph structure record holding the page rank
+	/// of the page along with the outlinks. The title of the page id is read from the dictionary
+	/// written by PageDictionary
+	public static class PageRankSortingMap extends Mapper<IntWritable, PageRankNode, DoubleWritable, Text> {
 		
-		public void map (Text page, Text prOutlinks, Context context) throws IOException, InterruptedException {
-			
-			/// page rank delimiter is passed from the driver class
-			String PAGERANK_DELIMITER = context.getConfiguration().get("PAGERANK_DELIMITER");
-			
-			/// From the string consisting of the page rank value and the outlinks list,
-			/// we extract the page rank value
-			String[] temp = prOutlinks.toString().split(PAGERANK_DELIMITER);
+		private final DoubleWritable pageRank = new DoubleWritable();
+		private final Text page = new Text();
+		private PageDictionary.TitleLookup titles;
+		
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			titles = new PageDictionary.TitleLookup(context.getConfiguration());
+		}
+		
+		public void map (IntWritable pageId, PageRankNode prOutlinks, Context context) throws IOException, InterruptedException {
 			
-			/// we attache the page rank value and the page info to the context
-			if (temp.length > 0) {
-				context.write(new DoubleWritable(Double.valueOf(temp[0])), page);
+			/// we attach the page rank value and the page info to the context
+			if (titles.get(pageId.get(), page)) {
+				pageRank.set(prOutlinks.getRank());
+				context.write(pageRank, page);
 			}
 		}
+		
+		@Override
+		protected void cleanup(Context context) throws IOException, InterruptedException {
+			titles.close();
+		}
 	}
 	
 	/// Reducer class creates the key value pair of page and its corresponding page rank value.
@@ -48,6 +89,201 @@ public class PageRankSorting {
 		}
 	}
 	
+	/// This Mapper class keeps the K pages with the highest page rank seen by the map task in a
+	/// bounded min heap of (page rank, page id). Only these pages are written once the input is read,
+	/// so that the single reducer receives at most K pages from every map task. The titles are looked
+	/// up for the kept pages only, in page id order
+	public static class PageRankTopKMap extends Mapper<IntWritable, PageRankNode, DoubleWritable, Text> {
+		
+		private TopPages topPages;
+		
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			topPages = new TopPages(context.getConfiguration().getInt(TOP_K, DEFAULT_TOP_K));
+		}
+		
+		public void map (IntWritable pageId, PageRankNode prOutlinks, Context context) throws IOException, InterruptedException {
+			topPages.offer(prOutlinks.getRank(), pageId.get());
+		}
+		
+		@Override
+		protected void cleanup(Context context) throws IOException, InterruptedException {
+			int[] pageIds = topPages.pageIdsInOrder();
+			DoubleWritable pageRank = new DoubleWritable();
+			Text page = new Text();
+			
+			PageDictionary.TitleLookup titles = new PageDictionary.TitleLookup(context.getConfiguration());
+			try {
+				for (int pageId : pageIds) {
+					if (titles.get(pageId, page)) {
+						pageRank.set(topPages.rankOf(pageId));
+						context.write(pageRank, page);
+					}
+				}
+			} finally {
+				titles.close();
+			}
+		}
+	}
+	
+	/// Bounded min heap of (page rank, page id), holding the K highest page ranks offered to it. The
+	/// root is the lowest page rank kept, which is the one replaced by a higher page rank
+	static class TopPages {
+		
+		private final double[] ranks;
+		private final int[] pageIds;
+		private int size;
+		
+		TopPages(int k) {
+			ranks = new double[k];
+			pageIds = new int[k];
+		}
+		
+		void offer(double rank, int pageId) {
+			if (size < ranks.length) {
+				int i = size++;
+				
+				/// sift up
+				while (i > 0 && ranks[(i - 1) / 2] > rank) {
+					ranks[i] = ranks[(i - 1) / 2];
+					pageIds[i] = pageIds[(i - 1) / 2];
+					i = (i - 1) / 2;
+				}
+				ranks[i] = rank;
+				pageIds[i] = pageId;
+			} else if (size > 0 && rank > ranks[0]) {
+				int i = 0;
+				
+				/// sift down from the root, which is replaced
+				while (2 * i + 1 < size) {
+					int child = 2 * i + 1;
+					if (child + 1 < size && ranks[child + 1] < ranks[child])
+						child++;
+					if (ranks[child] >= rank)
+						break;
+					ranks[i] = ranks[child];
+					pageIds[i] = pageIds[child];
+					i = child;
+				}
+				ranks[i] = rank;
+				pageIds[i] = pageId;
+			}
+		}
+		
+		/// The kept page ids in increasing order, so that the titles are read in one pass over every
+		/// dictionary partition
+		int[] pageIdsInOrder() {
+			int[] order = Arrays.copyOf(pageIds, size);
+			Arrays.sort(order);
+			
+			/// The page ranks are put in the same order, for rankOf below
+			double[] sortedRanks = new double[size];
+			for (int i = 0; i < size; i++)
+				sortedRanks[Arrays.binarySearch(order, pageIds[i])] = ranks[i];
+			System.arraycopy(order, 0, pageIds, 0, size);
+			System.arraycopy(sortedRanks, 0, ranks, 0, size);
+			return order;
+		}
+		
+		/// Page rank of a kept page id, once pageIdsInOrder has been called
+		double rankOf(int pageId) {
+			return ranks[Arrays.binarySearch(pageIds, 0, size, pageId)];
+		}
+	}
+	
+	/// Reducer class for the top K output mode. The pages arrive in descending page rank order, and
+	/// only the first K of them are written
+	public static class PageRankTopKReduce extends Reducer<DoubleWritable, Text, Text, DoubleWritable> {
+		
+		private int remaining;
+		
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			remaining = context.getConfiguration().getInt(TOP_K, DEFAULT_TOP_K);
+		}
+		
+		public void reduce(DoubleWritable pagerank, Iterable<Text> pages, Context context) throws IOException, InterruptedException {
+			
+			for (Text page : pages) {
+				if (remaining == 0)
+					return;
+				context.write(page, pagerank);
+				remaining--;
+			}
+		}
+	}
+	
+	/// Samples the page ranks of the job input and writes the TotalOrderPartitioner partition file,
+	/// which holds one page rank per reducer boundary in descending order. Reducer i then gets the
+	/// page ranks between boundary i - 1 and boundary i, so the part files written by the reducers
+	/// follow each other in page rank order. The samples are read from up to MAX_SAMPLED_SPLITS input
+	/// splits spread over the input, since every split holds a range of page ids and not of page
+	/// ranks. Boundaries are kept distinct, which lowers the number of reducers when many pages share
+	/// the same page rank. Returns the number of reducers to run
+	public static int writePartitionFile(Job job, Path partitionFile, int reducers) throws IOException, InterruptedException, ClassNotFoundException {
+		Configuration conf = job.getConfiguration();
+		double[] samples = sampleRanks(job, conf.getInt(SAMPLES, DEFAULT_SAMPLES));
+		
+		/// The samples are sorted in descending order, like the keys of the job
+		Arrays.sort(samples);
+		for (int i = 0, j = samples.length - 1; i < j; i++, j--) {
+			double swap = samples[i];
+			samples[i] = samples[j];
+			samples[j] = swap;
+		}
+		
+		double[] boundaries = new double[Math.max(reducers - 1, 0)];
+		int noOfBoundaries = 0;
+		for (int i = 1; i < reducers && samples.length > 0; i++) {
+			double boundary = samples[Math.min(samples.length - 1, Math.round((float) samples.length * i / reducers))];
+			if (noOfBoundaries == 0 || boundary < boundaries[noOfBoundaries - 1])
+				boundaries[noOfBoundaries++] = boundary;
+		}
+		
+		SequenceFile.Writer writer = SequenceFile.createWriter(conf,
+				SequenceFile.Writer.file(partitionFile),
+				SequenceFile.Writer.keyClass(DoubleWritable.class),
+				SequenceFile.Writer.valueClass(NullWritable.class));
+		try {
+			DoubleWritable key = new DoubleWritable();
+			for (int i = 0; i < noOfBoundaries; i++) {
+				key.set(boundaries[i]);
+				writer.append(key, NullWritable.get());
+			}
+		} finally {
+			writer.close();
+		}
+		TotalOrderPartitioner.setPartitionFile(conf, partitionFile);
+		return noOfBoundaries + 1;
+	}
+	
+	/// Reads up to numSamples page ranks, taking the same number of records from the start of every
+	/// sampled input split
+	private static double[] sampleRanks(Job job, int numSamples) throws IOException, InterruptedException, ClassNotFoundException {
+		@SuppressWarnings("unchecked")
+		InputFormat<IntWritable, PageRankNode> inputFormat = (InputFormat<IntWritable, PageRankNode>)
+				ReflectionUtils.newInstance(job.getInputFormatClass(), job.getConfiguration());
+		List<InputSplit> splits = inputFormat.getSplits(job);
+		int splitsToSample = Math.min(MAX_SAMPLED_SPLITS, splits.size());
+		int samplesPerSplit = splitsToSample == 0 ? 0 : numSamples / splitsToSample + 1;
+		
+		double[] samples = new double[splitsToSample * samplesPerSplit];
+		int noOfSamples = 0;
+		for (int i = 0; i < splitsToSample; i++) {
+			InputSplit split = splits.get(i * splits.size() / splitsToSample);
+			TaskAttemptContext context = new TaskAttemptContextImpl(job.getConfiguration(), new TaskAttemptID());
+			RecordReader<IntWritable, PageRankNode> reader = inputFormat.createRecordReader(split, context);
+			try {
+				reader.initialize(split, context);
+				for (int taken = 0; taken < samplesPerSplit && reader.nextKeyValue(); taken++)
+					samples[noOfSamples++] = reader.getCurrentValue().getRank();
+			} finally {
+				reader.close();
+			}
+		}
+		return Arrays.copyOf(samples, noOfSamples);
+	}
+	
 	/// Comparator class referenced from the code below,
 	/// Reference: https://vangjee.wordpress.com/2012/03/30/implementing-rawcomparator-will-speed-up-your-hadoop-mapreduce-mr-jobs-2/
 	public static class PageRankValueComparator extends WritableComparator {
@@ -64,5 +300,17 @@ public class PageRankSorting {
 			
 			return (rank1 > rank2) ? -1 : ((rank1 < rank2) ? 1 : 0);
 		}
+		
+		/// The same descending order on DoubleWritable objects, which TotalOrderPartitioner uses to
+		/// find the reducer of a key among the page ranks of its partition file
+		@Override
+		@SuppressWarnings("rawtypes")
+		public int compare(WritableComparable a, WritableComparable b) {
+			
+			double rank1 = ((DoubleWritable) a).get();
+			double rank2 = ((DoubleWritable) b).get();
+			
+			return (rank1 > rank2) ? -1 : ((rank1 < rank2) ? 1 : 0);
+		}
 	}
 }
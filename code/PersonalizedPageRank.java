@@ -0,0 +1,489 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.BufferedReader;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.hadoop.mapreduce.lib.output.MultipleOutputs;
+
+/// PersonalizedPageRank computes one page rank vector per topic in the same jobs. The random surfer of
+/// a topic only jumps to the seed pages of the topic, so the (1 - d) of the uniform page rank is given
+/// to the seed pages only: pr(t) = d * sum(pr(t) / out degree) + (1 - d) * N / (seeds of t) on a seed
+/// page and d * sum(pr(t) / out degree) on any other page, which keeps the total page rank of every
+/// topic at about N, as with the uniform page rank. The seeds are read from a text file of
+/// "topic<TAB>title" lines, eg: -D pagerank.personalization.path=seeds.txt
+///
+/// Every page carries a RankVector of the page ranks of all K topics. The files are laid out as in
+/// PageRankSchimmy, so the graph structure is read once per iteration and every outlink is sent
+/// one record holding the contributions of all topics, instead of running the whole pipeline K times.
+public class PersonalizedPageRank {
+
+	/// Text file of "topic<TAB>title" lines holding the seed pages of every topic
+	public static final String SEEDS_PATH = "pagerank.personalization.path";
+
+	/// Configuration keys set by the driver class: the number of topics, the name of every topic in
+	/// pagerank.topic.<i>, where i is the index of its page ranks in a RankVector, the number of seed
+	/// pages of every topic found in the corpus, and the directory of the (page id, topic) seed files.
+	/// The names are kept one per key, so that they may hold any character but a tab
+	public static final String TOPIC_COUNT = "pagerank.topic.count";
+	public static final String TOPIC = "pagerank.topic.";
+	public static final String SEED_COUNTS = "pagerank.personalization.seed.counts";
+	public static final String SEED_IDS_PATH = "pagerank.personalization.seed.ids";
+
+	/// Counter group holding the number of seed pages of every topic, one counter per topic-<i>
+	public static final String SEED_COUNTER_GROUP = "PersonalizedSeeds";
+
+	/// File of the output directory holding the "topic-<i><TAB>topic name" line of every topic
+	public static final String TOPICS_FILE = "_topics.txt";
+
+	public static void setTopics(Configuration conf, String[] topics) {
+		conf.setInt(TOPIC_COUNT, topics.length);
+		for (int t = 0; t < topics.length; t++)
+			conf.set(TOPIC + t, topics[t]);
+	}
+
+	public static int getTopicCount(Configuration conf) {
+		return conf.getInt(TOPIC_COUNT, 0);
+	}
+
+	public static String[] getTopics(Configuration conf) {
+		String[] topics = new String[getTopicCount(conf)];
+		for (int t = 0; t < topics.length; t++)
+			topics[t] = conf.get(TOPIC + t);
+		return topics;
+	}
+
+	/// Name of the output directory and the seed counter of a topic. Topic names are only written to
+	/// TOPICS_FILE, so they never end up in a path or a counter name
+	public static String topicName(int topic) {
+		return "topic-" + topic;
+	}
+
+	/// Writes the "topic-<i><TAB>topic name" line of every topic to the given file
+	public static void writeTopics(Configuration conf, FileSystem fs, Path file) throws IOException {
+		String[] topics = getTopics(conf);
+		PrintWriter writer = new PrintWriter(new OutputStreamWriter(fs.create(file, true), StandardCharsets.UTF_8));
+		try {
+			for (int t = 0; t < topics.length; t++)
+				writer.println(topicName(t) + "\t" + topics[t]);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/// Reads the distinct topic names of the seed file in the order they first appear
+	public static String[] readTopics(Configuration conf) throws IOException {
+		Path seeds = new Path(conf.get(SEEDS_PATH));
+		List<String> topics = new ArrayList<String>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(seeds.getFileSystem(conf).open(seeds), StandardCharsets.UTF_8));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				int tab = line.indexOf('\t');
+				if (tab > 0 && !topics.contains(line.substring(0, tab)))
+					topics.add(line.substring(0, tab));
+			}
+		} finally {
+			reader.close();
+		}
+		return topics.toArray(new String[topics.size()]);
+	}
+
+	/// Turns the seed counters into the number of seed pages of every topic and stores them in the
+	/// configuration
+	public static long[] setSeedCounts(Configuration conf, Counters counters) {
+		long[] counts = new long[getTopicCount(conf)];
+		StringBuilder sb = new StringBuilder();
+		for (int t = 0; t < counts.length; t++) {
+			counts[t] = counters.findCounter(SEED_COUNTER_GROUP, topicName(t)).getValue();
+			sb.append(t == 0 ? "" : ",").append(counts[t]);
+		}
+		conf.set(SEED_COUNTS, sb.toString());
+		return counts;
+	}
+
+	/// Checks that every topic has at least one seed page which is a web page of the corpus
+	public static void checkSeeds(Configuration conf, long[] seedCounts) throws IOException {
+		String[] topics = getTopics(conf);
+		for (int t = 0; t < topics.length; t++)
+			if (seedCounts[t] == 0)
+				throw new IOException("None of the seed pages of the topic " + topics[t] + " is a web page of the corpus");
+	}
+
+	/// Page ranks of all topics of one page, or the contributions of all topics sent along one outlink
+	public static class RankVector implements Writable {
+
+		private double[] ranks = new double[0];
+		private int size;
+
+		public int size() {
+			return size;
+		}
+
+		/// Sets the number of page ranks, all of them 0
+		public void clear(int size) {
+			if (ranks.length < size)
+				ranks = new double[size];
+			Arrays.fill(ranks, 0, size, 0);
+			this.size = size;
+		}
+
+		public double get(int topic) {
+			return ranks[topic];
+		}
+
+		public void set(int topic, double rank) {
+			ranks[topic] = rank;
+		}
+
+		public void add(RankVector other) {
+			for (int t = 0; t < size; t++)
+				ranks[t] += other.ranks[t];
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			WritableUtils.writeVInt(out, size);
+			for (int t = 0; t < size; t++)
+				out.writeDouble(ranks[t]);
+		}
+
+		@Override
+		public void readFields(DataInput in) throws IOException {
+			int count = WritableUtils.readVInt(in);
+			if (ranks.length < count)
+				ranks = new double[count];
+			for (int t = 0; t < count; t++)
+				ranks[t] = in.readDouble();
+			size = count;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			for (int t = 0; t < size; t++)
+				sb.append(t == 0 ? "" : " ").append(ranks[t]);
+			return sb.toString();
+		}
+	}
+
+	/// Reads the page ranks of the next page of a partition file in step with the graph. In the first
+	/// iteration the page ranks are read from the graph itself, and all topics start from its page rank
+	static class VectorReader {
+
+		private final SequenceFile.Reader reader;
+		private final boolean fromGraph;
+		private final int topics;
+		private final IntWritable pageId = new IntWritable();
+		private final PageRankNode node = new PageRankNode();
+
+		VectorReader(Configuration conf, Path file, boolean fromGraph, int topics) throws IOException {
+			this.reader = new SequenceFile.Reader(conf, SequenceFile.Reader.file(file));
+			this.fromGraph = fromGraph;
+			this.topics = topics;
+		}
+
+		void read(int expected, RankVector ranks) throws IOException {
+			boolean found;
+			if (fromGraph) {
+				found = reader.next(pageId, node);
+				ranks.clear(topics);
+				for (int t = 0; t < topics; t++)
+					ranks.set(t, node.getRank());
+			} else {
+				found = reader.next(pageId, ranks);
+			}
+			if (!found || pageId.get() != expected || ranks.size() != topics)
+				throw new IOException("Page rank file is not in step with the graph at page id " + expected);
+		}
+
+		void close() throws IOException {
+			reader.close();
+		}
+	}
+
+	/// This Mapper class reads the seed file, with the topic as key and the title as value
+	public static class SeedMap extends Mapper<Text, Text, Text, IntWritable> {
+
+		private final Map<String, Integer> topicIndex = new HashMap<String, Integer>();
+		private final IntWritable topic = new IntWritable();
+
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			String[] topics = getTopics(context.getConfiguration());
+			for (int t = 0; t < topics.length; t++)
+				topicIndex.put(topics[t], t);
+		}
+
+		public void map(Text topicName, Text title, Context context) throws IOException, InterruptedException {
+			Integer t = topicIndex.get(topicName.toString());
+			if (t != null && title.getLength() > 0) {
+				topic.set(t);
+				context.write(title, topic);
+			}
+		}
+	}
+
+	/// This Reducer class gives every seed title its page id, by walking through graph_link/part-r-<k>
+	/// as WarmStartReduce does, and drops the seeds which are not web pages of the corpus. The output
+	/// is (page id, topic) in increasing page id order
+	public static class SeedReduce extends Reducer<Text, IntWritable, IntWritable, IntWritable> {
+
+		private SequenceFile.Reader graphLink;
+		private final Text title = new Text();
+		private final IntWritable pageId = new IntWritable();
+		private boolean hasTitle;
+		private boolean[] seen;
+
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			Configuration conf = context.getConfiguration();
+			int partition = context.getTaskAttemptID().getTaskID().getId();
+			graphLink = PageDictionary.openPartition(conf, new Path(conf.get(PageDictionary.GRAPH_LINK_PATH)), partition);
+			pageId.set(PageDictionary.getOffsets(conf)[partition] - 1);
+			seen = new boolean[getTopicCount(conf)];
+			hasTitle = nextTitle();
+		}
+
+		private boolean nextTitle() throws IOException {
+			boolean found = graphLink.next(title);
+			if (found)
+				pageId.set(pageId.get() + 1);
+			return found;
+		}
+
+		public void reduce(Text page, Iterable<IntWritable> pageTopics, Context context) throws IOException, InterruptedException {
+			while (hasTitle && title.compareTo(page) < 0)
+				hasTitle = nextTitle();
+
+			if (hasTitle && title.equals(page)) {
+				Arrays.fill(seen, false);
+				for (IntWritable topic : pageTopics) {
+					if (seen[topic.get()])
+						continue;
+					seen[topic.get()] = true;
+					context.write(pageId, topic);
+					context.getCounter(SEED_COUNTER_GROUP, topicName(topic.get())).increment(1);
+				}
+			}
+		}
+
+		@Override
+		protected void cleanup(Context context) throws IOException, InterruptedException {
+			graphLink.close();
+		}
+	}
+
+	/// This Mapper class reads one whole graph partition file, along with the page rank vectors of the
+	/// same partition from the previous iteration, and sends the contributions of all topics along
+	/// every outlink in one record
+	public static class PersonalizedMap extends Mapper<IntWritable, PageRankNode, IntWritable, RankVector> {
+
+		private VectorReader ranks;
+		private final RankVector pageRanks = new RankVector();
+		private final RankVector contribution = new RankVector();
+		private final IntWritable outlinkKey = new IntWritable();
+		private int topics;
+
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			Configuration conf = context.getConfiguration();
+			topics = getTopicCount(conf);
+			String rankPath = conf.get(PageRankSchimmy.RANK_PATH);
+			String partition = ((FileSplit) context.getInputSplit()).getPath().getName();
+			if (rankPath != null)
+				ranks = new VectorReader(conf, new Path(rankPath, partition), false, topics);
+		}
+
+		public void map(IntWritable page, PageRankNode prOutlinks, Context context) throws IOException, InterruptedException {
+			if (ranks != null) {
+				ranks.read(page.get(), pageRanks);
+			} else {
+				pageRanks.clear(topics);
+				for (int t = 0; t < topics; t++)
+					pageRanks.set(t, prOutlinks.getRank());
+			}
+
+			int numberOfOutlinks = prOutlinks.getOutlinkCount();
+			if (numberOfOutlinks > 0) {
+				contribution.clear(topics);
+				for (int t = 0; t < topics; t++)
+					contribution.set(t, pageRanks.get(t) / prOutlinks.getOutDegree());
+				for (int i = 0; i < numberOfOutlinks; i++) {
+					outlinkKey.set(prOutlinks.getOutlink(i));
+					context.write(outlinkKey, contribution);
+				}
+			}
+		}
+
+		@Override
+		protected void cleanup(Context context) throws IOException, InterruptedException {
+			if (ranks != null)
+				ranks.close();
+		}
+	}
+
+	/// Combiner class adding up the contribution vectors sent to the same page id on the map side
+	public static class PersonalizedCombine extends Reducer<IntWritable, RankVector, IntWritable, RankVector> {
+
+		private final RankVector sum = new RankVector();
+
+		public void reduce(IntWritable page, Iterable<RankVector> it, Context context) throws IOException, InterruptedException {
+			boolean first = true;
+			for (RankVector value : it) {
+				if (first)
+					sum.clear(value.size());
+				sum.add(value);
+				first = false;
+			}
+			context.write(page, sum);
+		}
+	}
+
+	/// This Reducer class walks through every page id of its partition in order, like
+	/// PageRankSchimmyReduce, along with the seed file of the partition, and writes the new page rank
+	/// vector of every page id
+	public static class PersonalizedReduce extends Reducer<IntWritable, RankVector, IntWritable, RankVector> {
+
+		private VectorReader previous;
+		private SequenceFile.Reader seeds;
+		private final IntWritable seedId = new IntWritable();
+		private final IntWritable seedTopic = new IntWritable();
+		private boolean hasSeed;
+		private final IntWritable pageId = new IntWritable();
+		private final RankVector oldRanks = new RankVector();
+		private final RankVector newRanks = new RankVector();
+		private final RankVector sum = new RankVector();
+		private final PageRankComputation.Residual residual = new PageRankComputation.Residual();
+		private double DAMPING_FACTOR;
+		private double[] teleport;
+		private boolean[] isSeed;
+		private int topics;
+		private int nextPageId;
+		private int endPageId;
+
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			Configuration conf = context.getConfiguration();
+			DAMPING_FACTOR = conf.getDouble("DAMPING_FACTOR", PageRankDriver.DAMPING_FACTOR);
+			int partition = context.getTaskAttemptID().getTaskID().getId();
+			int[] offsets = PageDictionary.getOffsets(conf);
+			nextPageId = offsets[partition];
+			endPageId = offsets[partition + 1];
+
+			/// The (1 - d) * N of every topic is shared by its seed pages
+			String[] seedCounts = conf.getStrings(SEED_COUNTS);
+			topics = seedCounts.length;
+			teleport = new double[topics];
+			isSeed = new boolean[topics];
+			for (int t = 0; t < topics; t++) {
+				long count = Long.parseLong(seedCounts[t].trim());
+				teleport[t] = count > 0 ? (1 - DAMPING_FACTOR) * offsets[offsets.length - 1] / count : 0;
+			}
+
+			String rankPath = conf.get(PageRankSchimmy.RANK_PATH);
+			Path previousPath = new Path(rankPath != null ? rankPath : conf.get(PageDictionary.GRAPH_PATH));
+			previous = new VectorReader(conf, new Path(previousPath, PageDictionary.partitionName(partition)), rankPath == null, topics);
+			seeds = PageDictionary.openPartition(conf, new Path(conf.get(SEED_IDS_PATH)), partition);
+			hasSeed = seeds.next(seedId, seedTopic);
+		}
+
+		public void reduce(IntWritable page, Iterable<RankVector> it, Context context) throws IOException, InterruptedException {
+			while (nextPageId < page.get())
+				writePage(null, context);
+
+			sum.clear(topics);
+			for (RankVector value : it)
+				sum.add(value);
+			writePage(sum, context);
+		}
+
+		private void writePage(RankVector contributions, Context context) throws IOException, InterruptedException {
+			previous.read(nextPageId, oldRanks);
+
+			Arrays.fill(isSeed, false);
+			while (hasSeed && seedId.get() < nextPageId)
+				hasSeed = seeds.next(seedId, seedTopic);
+			while (hasSeed && seedId.get() == nextPageId) {
+				isSeed[seedTopic.get()] = true;
+				hasSeed = seeds.next(seedId, seedTopic);
+			}
+
+			/// pr(t) = d * (new page rank value of t) + (1 - d) * N / (seeds of t) on the seeds of t
+			newRanks.clear(topics);
+			for (int t = 0; t < topics; t++) {
+				double pageRank = (contributions == null ? 0 : DAMPING_FACTOR * contributions.get(t)) + (isSeed[t] ? teleport[t] : 0);
+				newRanks.set(t, pageRank);
+				residual.add(oldRanks.get(t), pageRank);
+			}
+
+			pageId.set(nextPageId);
+			context.write(pageId, newRanks);
+			nextPageId++;
+		}
+
+		@Override
+		protected void cleanup(Context context) throws IOException, InterruptedException {
+			while (nextPageId < endPageId)
+				writePage(null, context);
+			previous.close();
+			seeds.close();
+			residual.report(context);
+		}
+	}
+
+	/// This Mapper class splits the final page rank vectors into one page rank file per topic, at
+	/// topic-<i>/part-m-<k> of its output, which PageRankSorting reads as the output of any iteration
+	public static class VectorSplitMap extends Mapper<IntWritable, RankVector, IntWritable, PageRankNode> {
+
+		private MultipleOutputs<IntWritable, PageRankNode> multipleOutputs;
+		private final PageRankNode node = new PageRankNode();
+		private String[] baseOutputPaths;
+
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			multipleOutputs = new MultipleOutputs<IntWritable, PageRankNode>(context);
+			baseOutputPaths = new String[getTopicCount(context.getConfiguration())];
+			for (int t = 0; t < baseOutputPaths.length; t++)
+				baseOutputPaths[t] = topicName(t) + "/part";
+		}
+
+		public void map(IntWritable pageId, RankVector ranks, Context context) throws IOException, InterruptedException {
+			for (int t = 0; t < baseOutputPaths.length; t++) {
+				node.setPageRank(ranks.get(t), 0);
+				multipleOutputs.write(pageId, node, baseOutputPaths[t]);
+			}
+		}
+
+		@Override
+		protected void cleanup(Context context) throws IOException, InterruptedException {
+			multipleOutputs.close();
+		}
+	}
+}
@@ -0,0 +1,145 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+
+/// RankExtrapolation speeds up the standard iteration mode with Aitken extrapolation, when
+/// pagerank.extrapolation.period is set. The error of the power iteration shrinks by about the same
+/// ratio at every iteration, so three iterates x(n - 2), x(n - 1) and x(n) of a page show where its page
+/// rank is heading: with the changes a = x(n - 1) - x(n - 2) and b = x(n) - x(n - 1), the ratio is b / a
+/// and the limit is x(n) + b * ratio / (1 - ratio). Every period iterations, a map-only job reads the
+/// outputs of the last three iterations, which are kept in iteration_<n> until the run ends, and
+/// writes the extrapolated page ranks to iteration_<n>_extrapolated, which the next iteration reads.
+/// Every map task reads one whole part file of iteration n along with the part files of the same name
+/// of the two iterations before, which hold the same page ids in the same order. The ratio of a page
+/// is only trusted when it is at most the damping factor, which bounds the second eigenvalue of the
+/// iteration. Otherwise, eg. while the page rank still oscillates, the page keeps x(n).
+///
+/// The three iterates must follow each other through two plain iterations, so the extrapolations are
+/// at least three iterations apart. The convergence test still runs on the plain iterations only,
+/// so an extrapolation never ends the run by itself.
+public class RankExtrapolation {
+
+	/// Number of iterations between two extrapolations, eg: -D pagerank.extrapolation.period=10
+	/// By default, 0, the page ranks are not extrapolated. Values below 3 are raised to 3
+	public static final String PERIOD = "pagerank.extrapolation.period";
+	public static final int MIN_PERIOD = 3;
+
+	/// Directories of the two iterations before the one read by the job, set by the driver class
+	public static final String PREVIOUS_PATH = "pagerank.extrapolation.previous";
+	public static final String OLDER_PATH = "pagerank.extrapolation.older";
+
+	/// Counters holding the number of pages whose page rank was extrapolated and of the ones kept
+	public static enum ExtrapolationCounter { EXTRAPOLATED, KEPT }
+
+	public static int getPeriod(Configuration conf) {
+		int period = conf.getInt(PERIOD, 0);
+		return period <= 0 ? 0 : Math.max(period, MIN_PERIOD);
+	}
+
+	public static long getExtrapolated(Counters counters) {
+		return counters.findCounter(ExtrapolationCounter.EXTRAPOLATED).getValue();
+	}
+
+	public static long getKept(Counters counters) {
+		return counters.findCounter(ExtrapolationCounter.KEPT).getValue();
+	}
+
+	/// Aitken extrapolation of one page rank from its last three values. Returns NaN when the ratio
+	/// of the changes is not a contraction within the damping factor. A ratio of 1 or more is never a
+	/// contraction, also with a damping factor of 1, and would divide by 1 - ratio = 0
+	static double extrapolate(double older, double previous, double current, double dampingFactor) {
+		double a = previous - older;
+		double b = current - previous;
+		if (a == 0 || b == 0)
+			return Double.NaN;
+		double ratio = b / a;
+		if (Math.abs(ratio) > dampingFactor || Math.abs(ratio) >= 1)
+			return Double.NaN;
+		double extrapolated = current + b * ratio / (1 - ratio);
+		return extrapolated > 0 ? extrapolated : Double.NaN;
+	}
+
+	/// Estimates the iterations a plain run would have needed. residuals.get(k - 1) is the relative L1
+	/// residual of iteration k, and the outputs of the given iterations were extrapolated. The residual
+	/// of a plain run is known up to the first extrapolation, and then shrinks at the rate of its
+	/// slowest mode. The ratio of the residuals of iterations k - 1 and k is the rate of a plain
+	/// iteration when neither iteration k - 2 nor k - 1 was extrapolated. Right after an extrapolation,
+	/// which removes most of the slowest mode, it is the rate of the faster ones, so the largest of
+	/// these ratios over the run is taken, up to the damping factor which bounds them all. It is only an
+	/// estimate: a plain run may slow down further after the iterations seen. Returns -1 if there is no
+	/// plain ratio
+	public static int estimatePlainIterations(List<Double> residuals, List<Integer> extrapolations, double tolerance,
+			double dampingFactor) {
+		if (extrapolations.isEmpty())
+			return residuals.size();
+		int first = extrapolations.get(0);
+		double residual = residuals.get(first - 1);
+
+		double rate = 0;
+		for (int k = 3; k <= residuals.size(); k++)
+			if (!extrapolations.contains(k - 2) && !extrapolations.contains(k - 1) && residuals.get(k - 2) > 0)
+				rate = Math.max(rate, residuals.get(k - 1) / residuals.get(k - 2));
+		rate = Math.min(rate, dampingFactor);
+		if (rate <= 0)
+			return -1;
+		if (residual < tolerance)
+			return first;
+		return first + (int) Math.floor(Math.log(tolerance / residual) / Math.log(rate)) + 1;
+	}
+
+	/// This Mapper class reads one part file of the last iteration and the part files of the same name
+	/// of the two iterations before, and writes the graph structure record of every page with its
+	/// extrapolated page rank
+	public static class RankExtrapolationMap extends Mapper<IntWritable, PageRankNode, IntWritable, PageRankNode> {
+
+		private SequenceFile.Reader previous;
+		private SequenceFile.Reader older;
+		private final IntWritable pageId = new IntWritable();
+		private final PageRankNode node = new PageRankNode();
+		private double dampingFactor;
+
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			Configuration conf = context.getConfiguration();
+			dampingFactor = conf.getDouble("DAMPING_FACTOR", PageRankDriver.DAMPING_FACTOR);
+			String partition = ((FileSplit) context.getInputSplit()).getPath().getName();
+			previous = new SequenceFile.Reader(conf, SequenceFile.Reader.file(new Path(conf.get(PREVIOUS_PATH), partition)));
+			older = new SequenceFile.Reader(conf, SequenceFile.Reader.file(new Path(conf.get(OLDER_PATH), partition)));
+		}
+
+		public void map(IntWritable page, PageRankNode prOutlinks, Context context) throws IOException, InterruptedException {
+			PageRankSchimmy.readPage(previous, pageId, node, page.get());
+			double previousRank = node.getRank();
+			PageRankSchimmy.readPage(older, pageId, node, page.get());
+			double olderRank = node.getRank();
+
+			double extrapolated = extrapolate(olderRank, previousRank, prOutlinks.getRank(), dampingFactor);
+			if (Double.isNaN(extrapolated)) {
+				context.getCounter(ExtrapolationCounter.KEPT).increment(1);
+			} else {
+				context.getCounter(ExtrapolationCounter.EXTRAPOLATED).increment(1);
+				prOutlinks.setRank(extrapolated);
+			}
+			context.write(page, prOutlinks);
+		}
+
+		@Override
+		protected void cleanup(Context context) throws IOException, InterruptedException {
+			previous.close();
+			older.close();
+		}
+	}
+}
@@ -0,0 +1,332 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.lib.partition.TotalOrderPartitioner;
+
+/// RankIndex is a binary index of the final page ranks, which a service memory maps to look the page
+/// rank of a title up in O(log N) and to read the top N pages or a page rank range without parsing
+/// the text output. It is built when pagerank.index.path is set. The RankIndexMap job sends the
+/// (title, page rank) of every page to the reducers, each of which sorts one range of titles sampled
+/// from the dictionary, and the driver class reads their outputs once, one after the other, and
+/// writes these arrays to the local index directory:
+///
+///   titles         byte[]      UTF-8 bytes of all titles, in title order
+///   title_offsets  long[N + 1] the title at position p is titles[title_offsets[p]] to titles[title_offsets[p + 1] - 1]
+///   ranks          double[N]   page rank of the title at every position
+///   by_rank        int[N]      title positions in descending page rank order, equal page ranks in title order
+///
+/// The titles are in the byte order of Text, which is how the lookups compare them. The arrays are
+/// read through MappedArray, so opening the index reads nothing and the lookups create no object
+/// but the titles they return
+public class RankIndex {
+
+	/// Local directory of the index, eg: -D pagerank.index.path=/srv/pagerank/index
+	/// By default no index is built. A personalized run writes one index per topic under it
+	public static final String INDEX_PATH = "pagerank.index.path";
+
+	private static final String TITLES = "titles";
+	private static final String TITLE_OFFSETS = "title_offsets";
+	private static final String RANKS = "ranks";
+	private static final String BY_RANK = "by_rank";
+
+	/// Number of titles sampled for every reducer of the RankIndexMap job
+	private static final int SAMPLES_PER_REDUCER = 100;
+
+	private final MappedArray titles;
+	private final MappedArray titleOffsets;
+	private final MappedArray ranks;
+	private final MappedArray byRank;
+	private final int size;
+
+	private RankIndex(File directory) throws IOException {
+		titles = MappedArray.open(new File(directory, TITLES));
+		titleOffsets = MappedArray.open(new File(directory, TITLE_OFFSETS));
+		ranks = MappedArray.open(new File(directory, RANKS));
+		byRank = MappedArray.open(new File(directory, BY_RANK));
+		size = (int) (ranks.size() / 8);
+	}
+
+	/// Maps the index written to the given directory
+	public static RankIndex open(File directory) throws IOException {
+		return new RankIndex(directory);
+	}
+
+	/// Number of pages
+	public int size() {
+		return size;
+	}
+
+	/// Position of the title, or -1 if it is not in the index
+	public int find(String title) {
+		return find(title.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/// Binary search of the UTF-8 bytes of a title
+	public int find(byte[] title) {
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int c = compareTitle(middle, title);
+			if (c < 0)
+				low = middle + 1;
+			else if (c > 0)
+				high = middle - 1;
+			else
+				return middle;
+		}
+		return -1;
+	}
+
+	/// Page rank of the title, or NaN if it is not in the index
+	public double getRank(String title) {
+		int position = find(title);
+		return position < 0 ? Double.NaN : rankAt(position);
+	}
+
+	/// Page rank of the title at the given position
+	public double rankAt(int position) {
+		return ranks.getDouble(position);
+	}
+
+	/// Title at the given position
+	public String titleAt(int position) {
+		long start = titleOffsets.getLong(position);
+		byte[] bytes = new byte[(int) (titleOffsets.getLong(position + 1) - start)];
+		for (int i = 0; i < bytes.length; i++)
+			bytes[i] = titles.getByte(start + i);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/// Position of the page with the given place in descending page rank order, 0 being the page with
+	/// the highest page rank. The top N pages are positionByRank(0) to positionByRank(N - 1)
+	public int positionByRank(int place) {
+		return byRank.getInt(place);
+	}
+
+	/// First place in descending page rank order whose page rank is at most the given one. The pages
+	/// with a page rank between min and max are the places from firstAtMost(max) to firstBelow(min) - 1
+	public int firstAtMost(double rank) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (rankAt(positionByRank(middle)) > rank)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/// First place in descending page rank order whose page rank is below the given one
+	public int firstBelow(double rank) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (rankAt(positionByRank(middle)) >= rank)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/// Compares the title at the given position with the given bytes, as unsigned bytes like Text
+	private int compareTitle(int position, byte[] title) {
+		long start = titleOffsets.getLong(position);
+		int length = (int) (titleOffsets.getLong(position + 1) - start);
+		for (int i = 0; i < length && i < title.length; i++) {
+			int c = (titles.getByte(start + i) & 0xff) - (title[i] & 0xff);
+			if (c != 0)
+				return c;
+		}
+		return length - title.length;
+	}
+
+	/// This Mapper class reads the final page ranks and writes the title of every page along with its
+	/// page rank, so that the reducers receive them sorted by title
+	public static class RankIndexMap extends Mapper<IntWritable, PageRankNode, Text, DoubleWritable> {
+
+		private final DoubleWritable pageRank = new DoubleWritable();
+		private final Text page = new Text();
+		private PageDictionary.TitleLookup titles;
+
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			titles = new PageDictionary.TitleLookup(context.getConfiguration());
+		}
+
+		public void map (IntWritable pageId, PageRankNode prOutlinks, Context context) throws IOException, InterruptedException {
+			if (titles.get(pageId.get(), page)) {
+				pageRank.set(prOutlinks.getRank());
+				context.write(page, pageRank);
+			}
+		}
+
+		@Override
+		protected void cleanup(Context context) throws IOException, InterruptedException {
+			titles.close();
+		}
+	}
+
+	/// Samples the titles of the dictionary and writes the TotalOrderPartitioner partition file of the
+	/// RankIndexMap job, which holds one title per reducer boundary in Text order. Reducer i then gets
+	/// the titles between boundary i - 1 and boundary i, so the part files written by the reducers
+	/// follow each other in title order. The titles are looked up at page ids spread evenly over all
+	/// the pages. The titles of a partition have consecutive page ids in title order, so the samples
+	/// of every partition are spread evenly over its titles. Boundaries are kept distinct, which
+	/// lowers the number of reducers of a tiny corpus. Returns the number of reducers to run
+	public static int writePartitionFile(Configuration conf, Path partitionFile, int reducers) throws IOException {
+		int[] offsets = PageDictionary.getOffsets(conf);
+		int noOfPages = offsets[offsets.length - 1];
+		int noOfSamples = (int) Math.min(noOfPages, (long) reducers * SAMPLES_PER_REDUCER);
+		Text[] samples = new Text[noOfSamples];
+		int found = 0;
+		PageDictionary.TitleLookup titles = new PageDictionary.TitleLookup(conf);
+		try {
+			for (int i = 0; i < noOfSamples; i++) {
+				Text title = new Text();
+				if (titles.get((int) ((long) noOfPages * i / noOfSamples), title))
+					samples[found++] = title;
+			}
+		} finally {
+			titles.close();
+		}
+		Arrays.sort(samples, 0, found);
+
+		Text[] boundaries = new Text[Math.max(reducers - 1, 0)];
+		int noOfBoundaries = 0;
+		for (int i = 1; i < reducers && found > 0; i++) {
+			Text boundary = samples[Math.min(found - 1, Math.round((float) found * i / reducers))];
+			if (noOfBoundaries == 0 || boundary.compareTo(boundaries[noOfBoundaries - 1]) > 0)
+				boundaries[noOfBoundaries++] = boundary;
+		}
+
+		SequenceFile.Writer writer = SequenceFile.createWriter(conf,
+				SequenceFile.Writer.file(partitionFile),
+				SequenceFile.Writer.keyClass(Text.class),
+				SequenceFile.Writer.valueClass(NullWritable.class));
+		try {
+			for (int i = 0; i < noOfBoundaries; i++)
+				writer.append(boundaries[i], NullWritable.get());
+		} finally {
+			writer.close();
+		}
+		TotalOrderPartitioner.setPartitionFile(conf, partitionFile);
+		return noOfBoundaries + 1;
+	}
+
+	/// Writes the index to the local directory from the (title, page rank) files written by the
+	/// reducers of the RankIndexMap job, part-r-00000 to part-r-<parts - 1>, which follow each other
+	/// in title order. The titles, their offsets and the page ranks are written in one sequential
+	/// pass, then the positions are sorted by page rank. Only this int array of the positions and the
+	/// one the merge sort needs are held in memory. Returns the number of pages
+	public static int build(Configuration conf, Path sortedTitles, int parts, File directory) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("Could not create " + directory);
+
+		DataOutputStream titleBytes = MappedGraphStore.create(new File(directory, TITLES));
+		DataOutputStream offsets = MappedGraphStore.create(new File(directory, TITLE_OFFSETS));
+		DataOutputStream rankValues = MappedGraphStore.create(new File(directory, RANKS));
+		Text title = new Text();
+		DoubleWritable pageRank = new DoubleWritable();
+		long noOfBytes = 0;
+		int noOfPages = 0;
+
+		try {
+			offsets.writeLong(0);
+			for (int part = 0; part < parts; part++) {
+				SequenceFile.Reader reader = PageDictionary.openPartition(conf, sortedTitles, part);
+				try {
+					while (reader.next(title, pageRank)) {
+						titleBytes.write(title.getBytes(), 0, title.getLength());
+						noOfBytes += title.getLength();
+						offsets.writeLong(noOfBytes);
+						rankValues.writeDouble(pageRank.get());
+						noOfPages++;
+					}
+				} finally {
+					reader.close();
+				}
+			}
+		} finally {
+			titleBytes.close();
+			offsets.close();
+			rankValues.close();
+		}
+
+		MappedArray ranks = MappedArray.open(new File(directory, RANKS));
+		int[] order = new int[noOfPages];
+		for (int p = 0; p < noOfPages; p++)
+			order[p] = p;
+		order = sortByRank(order, ranks);
+
+		DataOutputStream byRank = MappedGraphStore.create(new File(directory, BY_RANK));
+		try {
+			for (int position : order)
+				byRank.writeInt(position);
+		} finally {
+			byRank.close();
+		}
+		return noOfPages;
+	}
+
+	/// Bottom up merge sort of the positions in descending page rank order. It is stable, so pages
+	/// with equal page ranks stay in title order
+	private static int[] sortByRank(int[] order, MappedArray ranks) {
+		int[] merged = new int[order.length];
+		for (int width = 1; width < order.length; width *= 2) {
+			for (int low = 0; low < order.length; low += 2 * width) {
+				int middle = Math.min(low + width, order.length);
+				int high = Math.min(low + 2 * width, order.length);
+				int left = low;
+				int right = middle;
+				for (int i = low; i < high; i++) {
+					if (left < middle && (right >= high || ranks.getDouble(order[left]) >= ranks.getDouble(order[right])))
+						merged[i] = order[left++];
+					else
+						merged[i] = order[right++];
+				}
+			}
+			int[] swap = order;
+			order = merged;
+			merged = swap;
+		}
+		return order;
+	}
+
+	/// Prints the page rank of the given titles, or the top N pages with --top N, eg:
+	/// "hadoop jar pagerank.jar org.myorg.RankIndex /srv/pagerank/index --top 10"
+	public static void main(String[] args) throws IOException {
+		RankIndex index = RankIndex.open(new File(args[0]));
+		if (args.length == 3 && "--top".equals(args[1])) {
+			int top = Math.min(Integer.parseInt(args[2]), index.size());
+			for (int place = 0; place < top; place++) {
+				int position = index.positionByRank(place);
+				System.out.println(index.titleAt(position) + "\t" + index.rankAt(position));
+			}
+		} else {
+			for (int a = 1; a < args.length; a++)
+				System.out.println(args[a] + "\t" + index.getRank(args[a]));
+		}
+	}
+}
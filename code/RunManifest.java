@@ -0,0 +1,116 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+/// RunManifest is the checkpoint of a run, kept in ../intermediate_directory/_manifest. The driver
+/// rewrites it once GraphLink, PageDictionary and every iteration have completed, with the last
+/// completed stage, the iteration number, the input and output paths of the stage and the parameters
+/// of the run. The numbers which the later jobs need and which were read from the GraphLink job (N
+/// and the page id offsets) are kept too, so that a run started with --resume can skip the completed
+/// stages and continue from the last completed iteration.
+public class RunManifest {
+
+	public static final String FILE_NAME = "_manifest";
+
+	/// Stages in the order they complete
+	public static final String GRAPH_LINK_STAGE = "graph_link";
+	public static final String PAGE_DICTIONARY_STAGE = "page_dictionary";
+	public static final String ITERATION_STAGE = "iteration";
+
+	private static final String[] STAGES = { GRAPH_LINK_STAGE, PAGE_DICTIONARY_STAGE, ITERATION_STAGE };
+
+	private final FileSystem fs;
+	private final Path file;
+	private final Properties properties = new Properties();
+
+	public RunManifest(FileSystem fs, Path intermediatePath) {
+		this.fs = fs;
+		this.file = new Path(intermediatePath, FILE_NAME);
+	}
+
+	/// Reads the manifest of an earlier run. Returns false if there is none
+	public boolean load() throws IOException {
+		if (!fs.exists(file))
+			return false;
+		InputStream in = fs.open(file);
+		try {
+			properties.load(in);
+		} finally {
+			in.close();
+		}
+		return true;
+	}
+
+	public String get(String key) {
+		return properties.getProperty(key);
+	}
+
+	public void set(String key, Object value) {
+		if (value != null)
+			properties.setProperty(key, String.valueOf(value));
+	}
+
+	public String getStage() {
+		return properties.getProperty("stage", "");
+	}
+
+	public int getIteration() {
+		return Integer.parseInt(properties.getProperty("iteration", "0"));
+	}
+
+	public boolean isConverged() {
+		return Boolean.parseBoolean(properties.getProperty("converged", "false"));
+	}
+
+	/// True if the given stage, or a later one, has completed
+	public boolean hasCompleted(String stage) {
+		int completed = -1;
+		int asked = -1;
+		for (int i = 0; i < STAGES.length; i++) {
+			if (STAGES[i].equals(getStage()))
+				completed = i;
+			if (STAGES[i].equals(stage))
+				asked = i;
+		}
+		return completed >= asked && asked >= 0;
+	}
+
+	/// Throws if a parameter recorded by the earlier run differs from the one of this run, in which
+	/// case its outputs can not be reused
+	public void check(String key, String value) throws IOException {
+		String before = get(key);
+		if (before != null && !before.equals(value))
+			throw new IOException("Can not resume: " + key + " was " + before + " and is now " + value
+					+ ". Run again without --resume");
+	}
+
+	/// Records a completed stage. The manifest is written to a temporary file and renamed, so that a
+	/// run which fails while writing it leaves the previous manifest in place
+	public void save(String stage, String input, String output) throws IOException {
+		set("stage", stage);
+		set("stage.input", input);
+		set("stage.output", output);
+		set("time", System.currentTimeMillis());
+
+		Path temporary = new Path(file.getParent(), FILE_NAME + ".tmp");
+		OutputStream out = fs.create(temporary, true);
+		try {
+			properties.store(out, "PageRank run manifest");
+		} finally {
+			out.close();
+		}
+		fs.delete(file, false);
+		if (!fs.rename(temporary, file))
+			throw new IOException("Could not write " + file);
+	}
+}
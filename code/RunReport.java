@@ -0,0 +1,254 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.CounterGroup;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.JobCounter;
+import org.apache.hadoop.mapreduce.TaskCounter;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+import org.apache.hadoop.mapreduce.TaskReport;
+import org.apache.hadoop.mapreduce.TaskType;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormatCounter;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormatCounter;
+
+/// RunReport records the metrics of every job of a run, in the order the jobs ran: the stage and the
+/// iteration it belongs to, its wall time, the time spent in map and reduce tasks, the bytes and
+/// records read, shuffled and written, the input records of the largest and the median reducer,
+/// and the residual and page rank mass of the iterations. Everything is read from the job counters
+/// and the side files of the job (see TaskCounts) once the job has ended, along with the counters of
+/// this program, which are copied as they are.
+/// The driver class writes the report to _report.json and _report.csv in the output directory, or
+/// in pagerank.report.path. The names start with "_", so the files are skipped when the output
+/// directory is read by --warm-start or --incremental.
+public class RunReport {
+
+	/// Directory of the report, eg: -D pagerank.report.path=reports/run1. By default the output directory
+	public static final String REPORT_PATH = "pagerank.report.path";
+	public static final String JSON_FILE = "_report.json";
+	public static final String CSV_FILE = "_report.csv";
+
+	/// Name of the input records of every reducer of an iteration in the side files of TaskCounts,
+	/// for the task reports which the local job runner does not keep
+	public static final String REDUCE_INPUT = "reduce_input_records";
+
+	/// Columns of the CSV file, which are also the first fields of every JSON record
+	private static final String[] COLUMNS = { "stage", "iteration", "job", "job_id", "succeeded", "wall_ms",
+			"maps", "reduces", "map_ms", "reduce_ms", "cpu_ms", "gc_ms", "input_bytes", "input_records",
+			"map_output_records", "map_output_bytes", "combine_output_records", "shuffle_bytes",
+			"reduce_input_records", "output_records", "output_bytes", "spilled_records",
+			"reduce_input_max", "reduce_input_median", "reduce_skew", "l1_residual", "max_residual", "rank_mass" };
+
+	private final List<Map<String, Object>> records = new ArrayList<Map<String, Object>>();
+	private final List<Map<String, Map<String, Long>>> programCounters = new ArrayList<Map<String, Map<String, Long>>>();
+
+	/// Copies the input records of the reducer running this task into the values of its side file.
+	/// Called once the reducer is done, before the side file is written
+	public static void countReduceInput(TaskInputOutputContext<?, ?, ?, ?> context, TaskCounts counts) {
+		counts.add(REDUCE_INPUT, context.getCounter(TaskCounter.REDUCE_INPUT_RECORDS).getValue());
+	}
+
+	/// Adds a stage which ran without any MapReduce job, like the local or the mapped engine
+	public void addStage(String stage, int iteration, boolean succeeded, long wallMillis) {
+		Map<String, Object> record = new LinkedHashMap<String, Object>();
+		record.put("stage", stage);
+		record.put("iteration", iteration);
+		record.put("succeeded", succeeded);
+		record.put("wall_ms", wallMillis);
+		records.add(record);
+		programCounters.add(new LinkedHashMap<String, Map<String, Long>>());
+	}
+
+	/// Adds a job which has ended
+	public void add(String stage, int iteration, Job job, boolean succeeded, long wallMillis) throws IOException, InterruptedException {
+		Map<String, Object> record = new LinkedHashMap<String, Object>();
+		record.put("stage", stage);
+		record.put("iteration", iteration);
+		record.put("job", job.getJobName());
+		record.put("job_id", job.getJobID() == null ? null : job.getJobID().toString());
+		record.put("succeeded", succeeded);
+		record.put("wall_ms", wallMillis);
+
+		Counters counters = job.getCounters();
+		Map<String, Map<String, Long>> ownCounters = new LinkedHashMap<String, Map<String, Long>>();
+		if (counters != null) {
+			record.put("maps", counters.findCounter(JobCounter.TOTAL_LAUNCHED_MAPS).getValue());
+			record.put("reduces", counters.findCounter(JobCounter.TOTAL_LAUNCHED_REDUCES).getValue());
+			record.put("map_ms", counters.findCounter(JobCounter.MILLIS_MAPS).getValue());
+			record.put("reduce_ms", counters.findCounter(JobCounter.MILLIS_REDUCES).getValue());
+			record.put("cpu_ms", counters.findCounter(TaskCounter.CPU_MILLISECONDS).getValue());
+			record.put("gc_ms", counters.findCounter(TaskCounter.GC_TIME_MILLIS).getValue());
+			record.put("input_bytes", counters.findCounter(FileInputFormatCounter.BYTES_READ).getValue());
+			record.put("input_records", counters.findCounter(TaskCounter.MAP_INPUT_RECORDS).getValue());
+			record.put("map_output_records", counters.findCounter(TaskCounter.MAP_OUTPUT_RECORDS).getValue());
+			record.put("map_output_bytes", counters.findCounter(TaskCounter.MAP_OUTPUT_BYTES).getValue());
+			record.put("combine_output_records", counters.findCounter(TaskCounter.COMBINE_OUTPUT_RECORDS).getValue());
+			record.put("shuffle_bytes", counters.findCounter(TaskCounter.REDUCE_SHUFFLE_BYTES).getValue());
+			record.put("reduce_input_records", counters.findCounter(TaskCounter.REDUCE_INPUT_RECORDS).getValue());
+			record.put("output_records", counters.findCounter(job.getNumReduceTasks() == 0
+					? TaskCounter.MAP_OUTPUT_RECORDS : TaskCounter.REDUCE_OUTPUT_RECORDS).getValue());
+			record.put("output_bytes", counters.findCounter(FileOutputFormatCounter.BYTES_WRITTEN).getValue());
+			record.put("spilled_records", counters.findCounter(TaskCounter.SPILLED_RECORDS).getValue());
+
+			long[] reduceInputs = reduceInputs(job);
+			if (reduceInputs.length > 0) {
+				Arrays.sort(reduceInputs);
+				long max = reduceInputs[reduceInputs.length - 1];
+				long median = reduceInputs[(reduceInputs.length - 1) / 2];
+				record.put("reduce_input_max", max);
+				record.put("reduce_input_median", median);
+				record.put("reduce_skew", median > 0 ? (double) max / median : null);
+			}
+
+			/// The residuals are only reported by the reducers of the iterations
+			if (counters.findCounter(PageRankComputation.PageRankCounter.PAGES).getValue() > 0) {
+				record.put("l1_residual", PageRankComputation.Residual.getL1Residual(counters));
+				record.put("max_residual", PageRankComputation.Residual.getMaxResidual(job.getConfiguration(),
+						FileOutputFormat.getOutputPath(job)));
+				record.put("rank_mass", PageRankComputation.Residual.getRankMass(counters));
+			}
+
+			for (CounterGroup group : counters) {
+				if (group.getName().startsWith("org.apache.hadoop.") || group.getName().equals("Shuffle Errors"))
+					continue;
+				Map<String, Long> values = new LinkedHashMap<String, Long>();
+				for (Counter counter : group)
+					values.put(counter.getName(), counter.getValue());
+				ownCounters.put(group.getName(), values);
+			}
+		}
+		records.add(record);
+		programCounters.add(ownCounters);
+	}
+
+	/// The input records of every reducer, from the task reports, or from the side files of the
+	/// reducers of an iteration when the job runner keeps no task reports
+	private static long[] reduceInputs(Job job) throws IOException, InterruptedException {
+		TaskReport[] reports = job.getTaskReports(TaskType.REDUCE);
+		if (reports != null && reports.length > 0) {
+			long[] inputs = new long[reports.length];
+			for (int i = 0; i < reports.length; i++)
+				inputs[i] = reports[i].getTaskCounters().findCounter(TaskCounter.REDUCE_INPUT_RECORDS).getValue();
+			return inputs;
+		}
+
+		/// Only the reducers of the iterations write their input records
+		Path outputDirectory = FileOutputFormat.getOutputPath(job);
+		if (outputDirectory == null || job.getNumReduceTasks() == 0)
+			return new long[0];
+		long[] inputs = TaskCounts.read(job.getConfiguration(), outputDirectory, REDUCE_INPUT, job.getNumReduceTasks());
+		for (long input : inputs)
+			if (input > 0)
+				return inputs;
+		return new long[0];
+	}
+
+	/// The metrics of every job in the order the jobs ran, keyed by the CSV columns
+	public List<Map<String, Object>> getRecords() {
+		return Collections.unmodifiableList(records);
+	}
+
+	/// Writes _report.json, a list with one object per job holding its metrics and the counters of
+	/// this program, and _report.csv, one line per job holding its metrics
+	public void write(FileSystem fs, Path directory) throws IOException {
+		PrintWriter json = open(fs, new Path(directory, JSON_FILE));
+		try {
+			json.println("[");
+			for (int r = 0; r < records.size(); r++) {
+				StringBuilder sb = new StringBuilder("  {");
+				for (String column : COLUMNS)
+					if (records.get(r).containsKey(column))
+						sb.append(quote(column)).append(": ").append(jsonValue(records.get(r).get(column))).append(", ");
+				sb.append(quote("counters")).append(": {");
+				String separator = "";
+				for (Map.Entry<String, Map<String, Long>> group : programCounters.get(r).entrySet()) {
+					sb.append(separator).append(quote(group.getKey())).append(": {");
+					String counterSeparator = "";
+					for (Map.Entry<String, Long> counter : group.getValue().entrySet()) {
+						sb.append(counterSeparator).append(quote(counter.getKey())).append(": ").append(counter.getValue());
+						counterSeparator = ", ";
+					}
+					sb.append("}");
+					separator = ", ";
+				}
+				sb.append("}}").append(r + 1 < records.size() ? "," : "");
+				json.println(sb);
+			}
+			json.println("]");
+		} finally {
+			json.close();
+		}
+
+		PrintWriter csv = open(fs, new Path(directory, CSV_FILE));
+		try {
+			csv.println(String.join(",", COLUMNS));
+			for (Map<String, Object> record : records) {
+				StringBuilder sb = new StringBuilder();
+				for (int c = 0; c < COLUMNS.length; c++) {
+					if (c > 0)
+						sb.append(",");
+					Object value = record.get(COLUMNS[c]);
+					if (value != null)
+						sb.append(value instanceof String ? csvValue((String) value) : value);
+				}
+				csv.println(sb);
+			}
+		} finally {
+			csv.close();
+		}
+	}
+
+	private static PrintWriter open(FileSystem fs, Path file) throws IOException {
+		OutputStream out = fs.create(file, true);
+		return new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+	}
+
+	private static String jsonValue(Object value) {
+		if (value == null)
+			return "null";
+		if (value instanceof String)
+			return quote((String) value);
+		if (value instanceof Double && (((Double) value).isNaN() || ((Double) value).isInfinite()))
+			return "null";
+		return value.toString();
+	}
+
+	private static String quote(String value) {
+		StringBuilder sb = new StringBuilder("\"");
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\')
+				sb.append('\\').append(c);
+			else if (c < 0x20)
+				sb.append(String.format("\\u%04x", (int) c));
+			else
+				sb.append(c);
+		}
+		return sb.append('"').toString();
+	}
+
+	private static String csvValue(String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0)
+			return value;
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+}
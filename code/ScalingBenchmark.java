@@ -0,0 +1,132 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.conf.Configured;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.util.Tool;
+import org.apache.hadoop.util.ToolRunner;
+
+/// ScalingBenchmark runs the whole pipeline under the local job runner on synthetic corpora of
+/// growing size, written by GraphGenerator with the same seed, average degree and R-MAT
+/// probabilities, eg: "hadoop jar pagerank.jar org.myorg.ScalingBenchmark -D pagerank.benchmark.sizes=1000,10000,100000 bench"
+/// Every size gets its own directory <dir>/<pages> holding the corpus in input, the page ranks in
+/// output and the run report of PageRankDriver. The jobs of every stage are added up and written to
+/// <dir>/_scaling.csv, one line per size and stage and one "total" line per size, so that the wall
+/// time, the records and the bytes shuffled can be plotted against the number of pages and links.
+/// All other -D options are passed on to PageRankDriver, so any mode can be measured.
+public class ScalingBenchmark extends Configured implements Tool {
+
+	/// Numbers of pages of the corpora, eg: -D pagerank.benchmark.sizes=1000,10000,100000
+	public static final String SIZES = "pagerank.benchmark.sizes";
+	public static final String DEFAULT_SIZES = "1000,10000,100000";
+
+	public static final String SCALING_FILE = "_scaling.csv";
+
+	/// Metrics of RunReport which are added up over the jobs of a stage
+	private static final String[] METRICS = { "wall_ms", "map_ms", "reduce_ms", "input_bytes", "map_output_records",
+			"map_output_bytes", "shuffle_bytes", "reduce_input_records", "output_records", "output_bytes", "spilled_records" };
+
+	public static void main(String[] args) throws Exception {
+		System.exit(ToolRunner.run(new ScalingBenchmark(), args));
+	}
+
+	@Override
+	public int run(String[] args) throws Exception {
+		Path benchmarkDirectory = new Path(args[0]);
+		FileSystem fs = FileSystem.get(getConf());
+		int success = 0;
+
+		PrintWriter csv = new PrintWriter(new OutputStreamWriter(fs.create(new Path(benchmarkDirectory, SCALING_FILE), true),
+				StandardCharsets.UTF_8));
+		try {
+			StringBuilder header = new StringBuilder("pages,links,stage,jobs,iterations");
+			for (String metric : METRICS)
+				header.append(",").append(metric);
+			csv.println(header);
+
+			for (String sizeValue : getConf().getTrimmedStrings(SIZES, DEFAULT_SIZES.split(","))) {
+				int size = Integer.parseInt(sizeValue);
+				System.out.println("JOB: SCALING BENCHMARK ---- PAGES: " + size + " STATUS: STARTED");
+				Path sizeDirectory = new Path(benchmarkDirectory, Integer.toString(size));
+				Path input = new Path(sizeDirectory, "input");
+				Path output = new Path(sizeDirectory, "output");
+				if (fs.exists(sizeDirectory))
+					fs.delete(sizeDirectory, true);
+
+				Configuration conf = new Configuration(getConf());
+				conf.setInt(GraphGenerator.PAGES, size);
+				GraphGenerator generator = new GraphGenerator(conf);
+				long links = generator.generate(fs, input);
+
+				/// Every job runs in this process with the local job runner
+				conf.set("mapreduce.framework.name", "local");
+				conf.set(RunReport.REPORT_PATH, sizeDirectory.toString());
+				PageRankDriver driver = new PageRankDriver();
+				driver.setConf(conf);
+				long started = System.currentTimeMillis();
+				int result = driver.run(new String[] { input.toString(), output.toString() });
+				long wallMillis = System.currentTimeMillis() - started;
+
+				writeStages(csv, size, links, driver.getReport(), wallMillis);
+				csv.flush();
+				System.out.println("JOB: SCALING BENCHMARK ---- PAGES: " + size + " LINKS: " + links
+						+ " WALL MS: " + wallMillis + " STATUS: " + (result == 0 ? "ENDED" : "FAILED"));
+				if (result != 0) {
+					success = result;
+					break;
+				}
+			}
+		} finally {
+			csv.close();
+		}
+		System.out.println("JOB: SCALING BENCHMARK ---- " + new Path(benchmarkDirectory, SCALING_FILE).toString());
+		return success;
+	}
+
+	/// Adds up the metrics of the jobs of every stage, in the order the stages first ran, and writes
+	/// one line per stage and a total line, whose wall time is the one of the whole run
+	private static void writeStages(PrintWriter csv, int pages, long links, RunReport report, long wallMillis) {
+		Map<String, long[]> stages = new LinkedHashMap<String, long[]>();
+		long[] total = new long[METRICS.length + 2];
+		for (Map<String, Object> record : report.getRecords()) {
+			String stage = (String) record.get("stage");
+			long[] sums = stages.get(stage);
+			if (sums == null) {
+				sums = new long[METRICS.length + 2];
+				stages.put(stage, sums);
+			}
+			sums[0]++;
+			sums[1] = Math.max(sums[1], ((Number) record.get("iteration")).longValue());
+			total[0]++;
+			for (int m = 0; m < METRICS.length; m++) {
+				Object value = record.get(METRICS[m]);
+				if (value instanceof Number) {
+					sums[m + 2] += ((Number) value).longValue();
+					total[m + 2] += ((Number) value).longValue();
+				}
+			}
+			total[1] = Math.max(total[1], sums[1]);
+		}
+		total[2] = wallMillis;
+		stages.put("total", total);
+
+		for (Map.Entry<String, long[]> stage : stages.entrySet()) {
+			StringBuilder sb = new StringBuilder();
+			sb.append(pages).append(",").append(links).append(",").append(stage.getKey());
+			for (long value : stage.getValue())
+				sb.append(",").append(value);
+			csv.println(sb);
+		}
+	}
+}
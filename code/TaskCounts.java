@@ -0,0 +1,109 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+import org.apache.hadoop.mapreduce.TaskType;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+
+/// TaskCounts holds the values which every task of a job reports for itself, like the number of
+/// titles written by a GraphLink reducer. One counter per task would soon pass the limit of
+/// mapreduce.job.counters.max (120 by default) on a cluster with many reducers, so every task writes
+/// its values to its own side file, _counts/part-<m|r>-<k> in the output directory of the job. The
+/// file is written to the work directory of the task, so it is committed along with the part file
+/// of the task and a failed or speculative attempt leaves nothing behind. The directory name starts
+/// with "_", so it is skipped when the output directory is read by a later job.
+public class TaskCounts {
+
+	public static final String COUNTS_DIRECTORY = "_counts";
+
+	private final Map<String, Long> values = new LinkedHashMap<String, Long>();
+
+	/// Adds to the value of the given name
+	public void add(String name, long value) {
+		Long current = values.get(name);
+		values.put(name, current == null ? value : current + value);
+	}
+
+	/// Keeps the larger of the value of the given name and the given value
+	public void max(String name, long value) {
+		Long current = values.get(name);
+		values.put(name, current == null ? value : Math.max(current, value));
+	}
+
+	/// Writes the values to the side file of the task running this context. Called once the task is done
+	public void write(TaskInputOutputContext<?, ?, ?, ?> context) throws IOException, InterruptedException {
+		Path file = new Path(new Path(FileOutputFormat.getWorkOutputPath(context), COUNTS_DIRECTORY),
+				fileName(context.getTaskAttemptID()));
+		SequenceFile.Writer writer = SequenceFile.createWriter(context.getConfiguration(), SequenceFile.Writer.file(file),
+				SequenceFile.Writer.keyClass(Text.class), SequenceFile.Writer.valueClass(LongWritable.class));
+		try {
+			Text name = new Text();
+			LongWritable value = new LongWritable();
+			for (Map.Entry<String, Long> entry : values.entrySet()) {
+				name.set(entry.getKey());
+				value.set(entry.getValue());
+				writer.append(name, value);
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/// Name of the side file of a task, which is also the name of its part file
+	private static String fileName(TaskAttemptID attempt) {
+		return String.format("part-%s-%05d", attempt.getTaskType() == TaskType.MAP ? "m" : "r", attempt.getTaskID().getId());
+	}
+
+	/// The value of the given name written by every reducer of the job which wrote the output
+	/// directory, 0 for a reducer which did not write it
+	public static long[] read(Configuration conf, Path outputDirectory, String name, int numReducers) throws IOException {
+		FileSystem fs = outputDirectory.getFileSystem(conf);
+		long[] result = new long[numReducers];
+		for (int k = 0; k < numReducers; k++) {
+			Path file = new Path(new Path(outputDirectory, COUNTS_DIRECTORY), PageDictionary.partitionName(k));
+			if (fs.exists(file))
+				result[k] = get(conf, file, name);
+		}
+		return result;
+	}
+
+	/// The largest value of the given name written by any task of the job which wrote the output
+	/// directory, 0 if none wrote it
+	public static long max(Configuration conf, Path outputDirectory, String name) throws IOException {
+		FileSystem fs = outputDirectory.getFileSystem(conf);
+		FileStatus[] files = fs.globStatus(new Path(new Path(outputDirectory, COUNTS_DIRECTORY), "part-*"));
+		long max = 0;
+		for (FileStatus file : files == null ? new FileStatus[0] : files)
+			max = Math.max(max, get(conf, file.getPath(), name));
+		return max;
+	}
+
+	private static long get(Configuration conf, Path file, String name) throws IOException {
+		Text key = new Text();
+		LongWritable value = new LongWritable();
+		SequenceFile.Reader reader = new SequenceFile.Reader(conf, SequenceFile.Reader.file(file));
+		try {
+			while (reader.next(key, value))
+				if (key.toString().equals(name))
+					return value.get();
+		} finally {
+			reader.close();
+		}
+		return 0;
+	}
+}
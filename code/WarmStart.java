@@ -0,0 +1,118 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.Reducer;
+
+/// WarmStart starts the page rank computation from the final page ranks of an earlier run instead of
+/// 1 / N, so that a run over a slightly changed corpus needs fewer iterations. The earlier output,
+/// "title<TAB>page rank" lines, is joined with the titles of this run here. It runs with the same
+/// number of reducers as GraphLink, so reducer k receives the titles of graph_link/part-r-<k> in the
+/// same sorted order and turns them into page ids by walking through that file, as
+/// PageDictionaryEdgeReduce does. Its output, (page id, page rank) in increasing page id order, is
+/// read by PageDictionaryGraphReduce alongside the graph partition it writes. Pages which are not in
+/// the earlier output start from 1 / N as usual.
+public class WarmStart {
+
+	/// Output directory of an earlier run to start from, eg: --warm-start previous_output
+	public static final String WARM_START_PATH = "pagerank.warm.start.path";
+
+	/// Directory of the joined (page id, page rank) files, set by the driver class
+	public static final String RANKS_PATH = "pagerank.warm.start.ranks";
+
+	/// This Mapper class reads one line of the earlier output, with the title as key and the page
+	/// rank as value
+	public static class WarmStartMap extends Mapper<Text, Text, Text, DoubleWritable> {
+
+		private final DoubleWritable pageRank = new DoubleWritable();
+
+		public void map(Text title, Text rank, Context context) throws IOException, InterruptedException {
+			try {
+				pageRank.set(Double.parseDouble(rank.toString()));
+				context.write(title, pageRank);
+			} catch (NumberFormatException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/// This Reducer class gives every title of the earlier output its page id in this run, and drops
+	/// the titles which are no longer web pages of the corpus
+	public static class WarmStartReduce extends Reducer<Text, DoubleWritable, IntWritable, DoubleWritable> {
+
+		private SequenceFile.Reader graphLink;
+		private final Text title = new Text();
+		private final IntWritable pageId = new IntWritable();
+		private boolean hasTitle;
+
+		@Override
+		protected void setup(Context context) throws IOException, InterruptedException {
+			Configuration conf = context.getConfiguration();
+			int partition = context.getTaskAttemptID().getTaskID().getId();
+			graphLink = PageDictionary.openPartition(conf, new Path(conf.get(PageDictionary.GRAPH_LINK_PATH)), partition);
+			pageId.set(PageDictionary.getOffsets(conf)[partition] - 1);
+			hasTitle = nextTitle();
+		}
+
+		private boolean nextTitle() throws IOException {
+			boolean found = graphLink.next(title);
+			if (found)
+				pageId.set(pageId.get() + 1);
+			return found;
+		}
+
+		public void reduce(Text page, Iterable<DoubleWritable> ranks, Context context) throws IOException, InterruptedException {
+			while (hasTitle && title.compareTo(page) < 0)
+				hasTitle = nextTitle();
+
+			if (hasTitle && title.equals(page)) {
+				for (DoubleWritable rank : ranks) {
+					context.write(pageId, rank);
+					break;
+				}
+			}
+		}
+
+		@Override
+		protected void cleanup(Context context) throws IOException, InterruptedException {
+			graphLink.close();
+		}
+	}
+
+	/// Reads the joined page ranks of one partition in step with the page ids written by
+	/// PageDictionaryGraphReduce, which asks for them in increasing order
+	public static class RankReader {
+
+		private final SequenceFile.Reader reader;
+		private final IntWritable pageId = new IntWritable();
+		private final DoubleWritable pageRank = new DoubleWritable();
+		private boolean hasRank;
+
+		public RankReader(Configuration conf, int partition) throws IOException {
+			reader = PageDictionary.openPartition(conf, new Path(conf.get(RANKS_PATH)), partition);
+			hasRank = reader.next(pageId, pageRank);
+		}
+
+		/// The page rank of the page id in the earlier run, or the given default if it had none
+		public double get(int id, double defaultRank) throws IOException {
+			while (hasRank && pageId.get() < id)
+				hasRank = reader.next(pageId, pageRank);
+			return hasRank && pageId.get() == id ? pageRank.get() : defaultRank;
+		}
+
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+}
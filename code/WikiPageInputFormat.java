@@ -0,0 +1,249 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.CodecPool;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.io.compress.Decompressor;
+import org.apache.hadoop.io.compress.SplitCompressionInputStream;
+import org.apache.hadoop.io.compress.SplittableCompressionCodec;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+
+/// WikiPageInputFormat reads the <page> elements of a MediaWiki XML dump as records, when
+/// pagerank.input.format is "xml", instead of one web page per line. The value of a record is the
+/// bytes of one <page>...</page> element, which LinkExtractor reads as it reads a line, and the key is
+/// its position in the file. The element may span any number of lines, so dumps are read as they are
+/// published, without flattening every page into one line first.
+///
+/// A page belongs to the split in which its <page> tag starts. The reader of a split skips ahead to
+/// the first <page> tag from the start of the split and reads on past the end of the split to finish
+/// its last page, so every page is read by exactly one map task. Uncompressed dumps and bzip2 dumps
+/// are split. A bzip2 split starts at the first compressed block after its start, and a page belongs
+/// to the split in which the block holding its <page> tag starts, as LineRecordReader does for lines.
+/// Other compressed files are read whole by one map task.
+public class WikiPageInputFormat extends FileInputFormat<LongWritable, Text> {
+
+	/// Format of the input web pages, eg: -D pagerank.input.format=xml
+	/// "lines" reads one web page per line, and "xml" reads the <page> elements of a MediaWiki dump
+	public static final String INPUT_FORMAT = "pagerank.input.format";
+	public static final String LINES_FORMAT = "lines";
+	public static final String XML_FORMAT = "xml";
+
+	public static boolean isXml(Configuration conf) {
+		return XML_FORMAT.equals(conf.get(INPUT_FORMAT, LINES_FORMAT));
+	}
+
+	@Override
+	public RecordReader<LongWritable, Text> createRecordReader(InputSplit split, TaskAttemptContext context) {
+		return new WikiPageRecordReader();
+	}
+
+	@Override
+	protected boolean isSplitable(JobContext context, Path file) {
+		CompressionCodec codec = new CompressionCodecFactory(context.getConfiguration()).getCodec(file);
+		return codec == null || codec instanceof SplittableCompressionCodec;
+	}
+
+	/// Finds the <page> elements of a stream of XML bytes. Only the pages whose <page> tag starts
+	/// before the end position are returned, where the position of a byte is its offset in the file,
+	/// or the position of its compressed block
+	public static class PageReader {
+
+		private static final byte[] PAGE_OPEN = "<page>".getBytes(StandardCharsets.UTF_8);
+		private static final byte[] PAGE_CLOSE = "</page>".getBytes(StandardCharsets.UTF_8);
+
+		private final InputStream in;
+		private final SplitCompressionInputStream blocks;
+		private final long end;
+		private final byte[] buffer = new byte[64 * 1024];
+		private int bufferLength;
+		private int bufferPosition;
+		private long bufferStart;
+		private long pagePosition;
+
+		/// Reads the pages of an uncompressed stream starting at the given position, or of a stream
+		/// of compressed blocks when blocks is not null
+		public PageReader(InputStream in, SplitCompressionInputStream blocks, long start, long end) {
+			this.in = in;
+			this.blocks = blocks;
+			this.bufferStart = start;
+			this.end = end;
+		}
+
+		/// Reads the next page into the given Text object. Returns false once there is no page left
+		/// which starts before the end position. A page cut off by the end of the stream is returned
+		/// as it is
+		public boolean next(Text page) throws IOException {
+			page.clear();
+			if (!readUntil(PAGE_OPEN, null))
+				return false;
+			page.append(PAGE_OPEN, 0, PAGE_OPEN.length);
+			readUntil(PAGE_CLOSE, page);
+			return true;
+		}
+
+		/// Position of the <page> tag of the last page read
+		public long getPagePosition() {
+			return pagePosition;
+		}
+
+		/// Position of the next byte to be read
+		public long getPosition() {
+			return blocks != null ? bufferStart : bufferStart + bufferPosition;
+		}
+
+		/// Reads until the end of the pattern, appending the bytes read to the page if it is not null.
+		/// When looking for a <page> tag, stops at the first tag which starts at or after the end
+		/// position. The tags start with the only '<' they hold, so a mismatch starts the match again
+		private boolean readUntil(byte[] pattern, Text page) throws IOException {
+			int matched = 0;
+			while (true) {
+				if (bufferPosition == bufferLength && !fill())
+					return false;
+
+				int from = bufferPosition;
+				while (bufferPosition < bufferLength) {
+					byte b = buffer[bufferPosition];
+					if (b != pattern[matched])
+						matched = 0;
+					if (b == pattern[matched]) {
+						if (matched == 0 && page == null) {
+							pagePosition = getPosition();
+							if (!isInSplit(pagePosition))
+								return false;
+						}
+						matched++;
+					}
+					bufferPosition++;
+					if (matched == pattern.length) {
+						if (page != null)
+							page.append(buffer, from, bufferPosition - from);
+						return true;
+					}
+				}
+				if (page != null)
+					page.append(buffer, from, bufferPosition - from);
+			}
+		}
+
+		/// A bzip2 split owns the blocks which start up to its end, as LineRecordReader counts them
+		private boolean isInSplit(long position) {
+			return blocks != null ? position <= end : position < end;
+		}
+
+		private boolean fill() throws IOException {
+			if (blocks == null)
+				bufferStart += bufferLength;
+			bufferPosition = 0;
+			bufferLength = 0;
+			int read = in.read(buffer);
+			if (read <= 0)
+				return false;
+			bufferLength = read;
+
+			/// The bytes of one read of a bzip2 stream all come from the block whose position it reports
+			if (blocks != null)
+				bufferStart = blocks.getPos();
+			return true;
+		}
+	}
+
+	/// This RecordReader class opens the file of its split and reads the pages which belong to it
+	public static class WikiPageRecordReader extends RecordReader<LongWritable, Text> {
+
+		private InputStream in;
+		private Decompressor decompressor;
+		private PageReader reader;
+		private long start;
+		private long end;
+		private final LongWritable key = new LongWritable();
+		private final Text value = new Text();
+
+		@Override
+		public void initialize(InputSplit genericSplit, TaskAttemptContext context) throws IOException {
+			FileSplit split = (FileSplit) genericSplit;
+			Configuration conf = context.getConfiguration();
+			start = split.getStart();
+			end = start + split.getLength();
+
+			Path file = split.getPath();
+			FileSystem fs = file.getFileSystem(conf);
+			FSDataInputStream fileIn = fs.open(file);
+			CompressionCodec codec = new CompressionCodecFactory(conf).getCodec(file);
+			if (codec == null) {
+				fileIn.seek(start);
+				in = fileIn;
+				reader = new PageReader(in, null, start, end);
+			} else {
+				decompressor = CodecPool.getDecompressor(codec);
+				if (codec instanceof SplittableCompressionCodec) {
+					SplitCompressionInputStream blocks = ((SplittableCompressionCodec) codec).createInputStream(fileIn,
+							decompressor, start, end, SplittableCompressionCodec.READ_MODE.BYBLOCK);
+					start = blocks.getAdjustedStart();
+					end = blocks.getAdjustedEnd();
+					in = blocks;
+					reader = new PageReader(in, blocks, start, end);
+				} else {
+					in = codec.createInputStream(fileIn, decompressor);
+					end = Long.MAX_VALUE;
+					reader = new PageReader(in, null, 0, end);
+				}
+			}
+		}
+
+		@Override
+		public boolean nextKeyValue() throws IOException {
+			if (!reader.next(value))
+				return false;
+			key.set(reader.getPagePosition());
+			return true;
+		}
+
+		@Override
+		public LongWritable getCurrentKey() {
+			return key;
+		}
+
+		@Override
+		public Text getCurrentValue() {
+			return value;
+		}
+
+		@Override
+		public float getProgress() {
+			if (start == end || end == Long.MAX_VALUE)
+				return 0;
+			return Math.min(1, (reader.getPosition() - start) / (float) (end - start));
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				if (in != null)
+					in.close();
+			} finally {
+				if (decompressor != null)
+					CodecPool.returnDecompressor(decompressor);
+				decompressor = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,151 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.junit.Before;
+import org.junit.Test;
+import org.myorg.GraphPatch.GraphPatchReduce;
+import org.myorg.GraphPatch.PageVersion;
+import org.myorg.GraphPatch.PatchCounter;
+
+/// Calls GraphPatchReduce.reduce with the versions of one title, in the orders the shuffle may hand
+/// them over, and checks the outlinks written and the counters
+public class GraphPatchTest {
+
+	private final Configuration conf = new Configuration(false);
+	private TaskContexts.Output<Text, OutlinkList> output;
+	private Counters counters;
+	private Reducer<Text, PageVersion, Text, OutlinkList>.Context context;
+
+	@Before
+	public void setUp() throws IOException, InterruptedException {
+		output = new TaskContexts.Output<Text, OutlinkList>(conf);
+		counters = new Counters();
+		context = TaskContexts.reduceContext(conf, output, counters, Text.class, PageVersion.class);
+	}
+
+	private static PageVersion version(byte kind, String... outlinks) {
+		PageVersion version = new PageVersion();
+		version.setKind(kind);
+		for (String outlink : outlinks)
+			version.getOutlinks().add(outlink);
+		return version;
+	}
+
+	private static PageVersion old(String... outlinks) {
+		return version(PageVersion.OLD, outlinks);
+	}
+
+	private static PageVersion changed(String... outlinks) {
+		return version(PageVersion.CHANGED, outlinks);
+	}
+
+	private static PageVersion removed() {
+		return version(PageVersion.REMOVED);
+	}
+
+	/// Reduces the versions of a new GraphPatchReduce, read into one reused object as Hadoop does
+	private void reduce(String title, PageVersion... versions) throws IOException, InterruptedException {
+		new GraphPatchReduce().reduce(new Text(title), TaskContexts.reused(new PageVersion(), Arrays.asList(versions)), context);
+	}
+
+	private List<String> written(int record) {
+		List<String> outlinks = new ArrayList<String>();
+		Text outlink = new Text();
+		OutlinkList list = output.values.get(record);
+		for (int i = 0; i < list.size(); i++) {
+			list.get(i, outlink);
+			outlinks.add(outlink.toString());
+		}
+		return outlinks;
+	}
+
+	private long count(PatchCounter counter) {
+		return counters.findCounter(counter).getValue();
+	}
+
+	@Test
+	public void unchangedPageIsKept() throws IOException, InterruptedException {
+		reduce("A", old("B", "C"));
+		assertEquals(1, output.keys.size());
+		assertEquals("A", output.keys.get(0).toString());
+		assertEquals(Arrays.asList("B", "C"), written(0));
+		assertEquals(0, count(PatchCounter.ADDED) + count(PatchCounter.EDITED) + count(PatchCounter.REMOVED));
+	}
+
+	@Test
+	public void addedPage() throws IOException, InterruptedException {
+		reduce("A", changed("B"));
+		assertEquals("A", output.keys.get(0).toString());
+		assertEquals(Arrays.asList("B"), written(0));
+		assertEquals(1, count(PatchCounter.ADDED));
+		assertEquals(0, count(PatchCounter.EDITED));
+	}
+
+	/// A title in both the earlier graph and the changes is written once, with the outlinks of the
+	/// change, whichever version comes first
+	@Test
+	public void editedPageReplacesTheOldOutlinks() throws IOException, InterruptedException {
+		reduce("A", old("B", "C", "D"), changed("E"));
+		reduce("F", changed("G", "H"), old("I"));
+		assertEquals(2, output.keys.size());
+		assertEquals("A", output.keys.get(0).toString());
+		assertEquals(Arrays.asList("E"), written(0));
+		assertEquals("F", output.keys.get(1).toString());
+		assertEquals(Arrays.asList("G", "H"), written(1));
+		assertEquals(2, count(PatchCounter.EDITED));
+		assertEquals(0, count(PatchCounter.ADDED));
+	}
+
+	@Test
+	public void editedPageWithNoOutlinksLeft() throws IOException, InterruptedException {
+		reduce("A", old("B"), changed());
+		assertEquals(1, output.keys.size());
+		assertEquals(Arrays.asList(), written(0));
+		assertEquals(1, count(PatchCounter.EDITED));
+	}
+
+	@Test
+	public void removedPageIsDropped() throws IOException, InterruptedException {
+		reduce("A", old("B"), removed());
+		reduce("C", removed(), old("D"));
+		assertEquals(0, output.keys.size());
+		assertEquals(2, count(PatchCounter.REMOVED));
+	}
+
+	/// Removing a title which is not in the earlier graph writes nothing and counts nothing
+	@Test
+	public void removedUnknownPage() throws IOException, InterruptedException {
+		reduce("A", removed());
+		assertEquals(0, output.keys.size());
+		assertEquals(0, count(PatchCounter.REMOVED));
+	}
+
+	/// Only the first change of a title is kept, as GraphLinkReduce keeps the first version of a title
+	@Test
+	public void firstChangeWins() throws IOException, InterruptedException {
+		reduce("A", old("B"), changed("C"), changed("D"));
+		reduce("E", old("F"), removed(), changed("G"));
+		reduce("H", old("I"), changed("J"), removed());
+		assertEquals(2, output.keys.size());
+		assertEquals("A", output.keys.get(0).toString());
+		assertEquals(Arrays.asList("C"), written(0));
+		assertEquals("H", output.keys.get(1).toString());
+		assertEquals(Arrays.asList("J"), written(1));
+		assertEquals(2, count(PatchCounter.EDITED));
+		assertEquals(1, count(PatchCounter.REMOVED));
+	}
+}
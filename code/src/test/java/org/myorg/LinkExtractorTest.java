@@ -0,0 +1,117 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+public class LinkExtractorTest {
+
+	private final Text title = new Text();
+	private final OutlinkList outlinks = new OutlinkList();
+
+	private boolean extract(String page) {
+		byte[] bytes = page.getBytes(StandardCharsets.UTF_8);
+		return LinkExtractor.extractPage(bytes, bytes.length, title, outlinks);
+	}
+
+	/// The outlinks of the web page with the given text
+	private List<String> links(String text) {
+		assertTrue(extract("<title>Page</title><revision><text xml:space=\"preserve\">" + text + "</text></revision>"));
+		List<String> links = new ArrayList<String>();
+		Text link = new Text();
+		for (int i = 0; i < outlinks.size(); i++) {
+			outlinks.get(i, link);
+			links.add(link.toString());
+		}
+		return links;
+	}
+
+	@Test
+	public void titleAndLinks() {
+		assertEquals(Arrays.asList("A", "B c"), links("see [[A]] and [[B c]]."));
+		assertEquals("Page", title.toString());
+	}
+
+	@Test
+	public void pipedLinksKeepTheTarget() {
+		assertEquals(Arrays.asList("A", "B"), links("[[A|the a page]] [[B|]]"));
+	}
+
+	@Test
+	public void anchorsAreCutOff() {
+		assertEquals(Arrays.asList("A", "B"), links("[[A#History]] [[B#History|history of b]]"));
+	}
+
+	@Test
+	public void linksToASectionOfThePageAreSkipped() {
+		assertEquals(Arrays.asList("A"), links("[[#History]] [[A]] [[#See also|see]]"));
+	}
+
+	@Test
+	public void emptyLinksAreSkipped() {
+		assertEquals(Arrays.asList("A"), links("[[]] [[ ]] [[|label]] [[A]]"));
+	}
+
+	@Test
+	public void spacesAroundTheTargetAreTrimmed() {
+		assertEquals(Arrays.asList("A b"), links("[[ A b |label]]"));
+	}
+
+	/// A link inside the caption of another one is read from its innermost brackets
+	@Test
+	public void nestedLinks() {
+		assertEquals(Arrays.asList("A", "B"), links("[[File:x.jpg|a picture of [[A]]]] then [[B]]"));
+	}
+
+	@Test
+	public void unterminatedLinkIsSkipped() {
+		assertEquals(Arrays.asList("A"), links("[[A]] [[B"));
+	}
+
+	@Test
+	public void linksOutsideTheTextAreSkipped() {
+		assertTrue(extract("<title>Page</title>[[X]]<text>[[A]]</text>[[Y]]"));
+		assertEquals(1, outlinks.size());
+	}
+
+	@Test
+	public void multiByteTitles() {
+		assertEquals(Arrays.asList("Genève", "東京"), links("[[Genève]] [[東京|Tokyo]]"));
+		assertTrue(extract("<title>Zürich</title><text>[[A]]</text>"));
+		assertEquals("Zürich", title.toString());
+	}
+
+	@Test
+	public void pagesWithoutTitleAreRejected() {
+		assertFalse(extract("<title></title><text>[[A]]</text>"));
+		assertFalse(extract("<text>[[A]]</text>"));
+		assertFalse(extract("<title>A<text>[[B]]</text>"));
+	}
+
+	/// The list is cleared for every page
+	@Test
+	public void outlinksAreClearedForEveryPage() {
+		assertEquals(Arrays.asList("A", "B"), links("[[A]] [[B]]"));
+		assertEquals(Arrays.asList("C"), links("[[C]]"));
+	}
+
+	@Test
+	public void removedPages() {
+		byte[] removed = "<title>A</title><removed/>".getBytes(StandardCharsets.UTF_8);
+		assertTrue(LinkExtractor.isRemoved(removed, removed.length));
+		byte[] page = "<title>A</title><text>[[B]]</text>".getBytes(StandardCharsets.UTF_8);
+		assertFalse(LinkExtractor.isRemoved(page, page.length));
+	}
+}
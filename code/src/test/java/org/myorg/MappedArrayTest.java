@@ -0,0 +1,109 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/// The arrays are mapped in segments of 8 and 16 bytes, so that small files hold many segment
+/// boundaries. The files are written with DataOutputStream, as MappedGraphStore and RankIndex do
+public class MappedArrayTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static long longValue(int i) {
+		return i % 2 == 0 ? Long.MIN_VALUE + i : 0x0102030405060708L * i;
+	}
+
+	@Test
+	public void intsAcrossSegments() throws IOException {
+		File file = folder.newFile();
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			for (int i = 0; i < 101; i++)
+				out.writeInt(i % 2 == 0 ? i : -i * 65537);
+		} finally {
+			out.close();
+		}
+
+		for (int shift = MappedArray.MIN_SEGMENT_SHIFT; shift <= 4; shift++) {
+			MappedArray array = MappedArray.map(file, file.length(), false, shift);
+			assertEquals(404, array.size());
+			for (int i = 0; i < 101; i++)
+				assertEquals(i % 2 == 0 ? i : -i * 65537, array.getInt(i));
+		}
+	}
+
+	/// The last value of one segment and the first value of the next one are read from their own
+	/// segment, with all their bytes
+	@Test
+	public void longsAndDoublesAcrossSegments() throws IOException {
+		File file = folder.newFile();
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			for (int i = 0; i < 25; i++)
+				out.writeLong(longValue(i));
+			for (int i = 0; i < 25; i++)
+				out.writeDouble(i / 3.0 - 4);
+		} finally {
+			out.close();
+		}
+
+		for (int shift = MappedArray.MIN_SEGMENT_SHIFT; shift <= 4; shift++) {
+			MappedArray array = MappedArray.map(file, file.length(), false, shift);
+			for (int i = 0; i < 25; i++) {
+				assertEquals(longValue(i), array.getLong(i));
+				assertEquals(i / 3.0 - 4, array.getDouble(25 + i), 0);
+			}
+		}
+	}
+
+	@Test
+	public void bytesAcrossSegments() throws IOException {
+		File file = folder.newFile();
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			for (int i = 0; i < 70; i++)
+				out.write(i * 3);
+		} finally {
+			out.close();
+		}
+
+		MappedArray array = MappedArray.map(file, file.length(), false, 4);
+		for (int i = 0; i < 70; i++)
+			assertEquals((byte) (i * 3), array.getByte(i));
+	}
+
+	/// Doubles written through small segments, whose last one is only partly used, are read back by
+	/// the default mapping of 1 GB segments
+	@Test
+	public void writtenDoublesAcrossSegments() throws IOException {
+		File file = new File(folder.getRoot(), "ranks");
+		MappedArray ranks = MappedArray.map(file, 7 * 8, true, 4);
+		for (int i = 0; i < 7; i++)
+			ranks.putDouble(i, 1.0 / (i + 1));
+		ranks.flush();
+
+		MappedArray reopened = MappedArray.open(file);
+		assertEquals(56, reopened.size());
+		for (int i = 0; i < 7; i++)
+			assertEquals(1.0 / (i + 1), reopened.getDouble(i), 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void segmentsSmallerThanALong() throws IOException {
+		MappedArray.map(folder.newFile(), 0, false, 2);
+	}
+}
@@ -0,0 +1,146 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.junit.Test;
+
+public class PageRankNodeTest {
+
+	/// Writes the record and returns its bytes
+	private static DataOutputBuffer write(PageRankNode node) throws IOException {
+		DataOutputBuffer out = new DataOutputBuffer();
+		node.write(out);
+		return out;
+	}
+
+	/// Reads the written bytes into the given record
+	private static PageRankNode read(DataOutputBuffer out, PageRankNode node) throws IOException {
+		DataInputBuffer in = new DataInputBuffer();
+		in.reset(out.getData(), out.getLength());
+		node.readFields(in);
+		assertEquals("the whole record is read", out.getLength(), in.getPosition());
+		return node;
+	}
+
+	@Test
+	public void structureRoundTrip() throws IOException {
+		PageRankNode node = new PageRankNode();
+		node.setStructure(1.5);
+		node.addOutlink(70000);
+		node.addOutlink(5);
+		node.addOutlink(300);
+		node.addOutlink(6);
+		node.sortOutlinks();
+
+		PageRankNode copy = read(write(node), new PageRankNode());
+		assertTrue(copy.isStructure());
+		assertEquals(1.5, copy.getRank(), 0);
+		assertEquals(0, copy.getChange(), 0);
+		assertEquals(4, copy.getOutlinkCount());
+		assertEquals(4, copy.getOutDegree());
+		int[] expected = { 5, 6, 300, 70000 };
+		for (int i = 0; i < expected.length; i++)
+			assertEquals(expected[i], copy.getOutlink(i));
+	}
+
+	/// The out degree counts the outlinks to titles which are not pages, which are not written
+	@Test
+	public void outDegreeAboveOutlinkCount() throws IOException {
+		PageRankNode node = new PageRankNode();
+		node.setStructure(1);
+		node.addOutlink(3);
+		node.addOutlink(9);
+		node.setOutDegree(7);
+
+		PageRankNode copy = read(write(node), new PageRankNode());
+		assertEquals(2, copy.getOutlinkCount());
+		assertEquals(7, copy.getOutDegree());
+	}
+
+	@Test
+	public void outDegreeNeverBelowOutlinkCount() {
+		PageRankNode node = new PageRankNode();
+		node.setStructure(1);
+		node.addOutlink(1);
+		node.addOutlink(2);
+		node.addOutlink(3);
+		node.setOutDegree(1);
+		assertEquals(3, node.getOutDegree());
+	}
+
+	/// Sorted outlinks are written as one byte gaps, after the type tag, the rank, the outlink count
+	/// and the number of missing outlinks
+	@Test
+	public void sortedOutlinksAreWrittenAsGaps() throws IOException {
+		PageRankNode node = new PageRankNode();
+		node.setStructure(1);
+		for (int i = 0; i < 100; i++)
+			node.addOutlink(1000000 + i);
+
+		DataOutputBuffer out = write(node);
+		assertEquals(PageRankNode.STRUCTURE, out.getData()[0]);
+		assertEquals(1 + 8 + 1 + 1 + 4 + 99, out.getLength());
+		PageRankNode copy = read(out, new PageRankNode());
+		for (int i = 0; i < 100; i++)
+			assertEquals(1000000 + i, copy.getOutlink(i));
+	}
+
+	@Test
+	public void contributionCarriesNoOutlinks() throws IOException {
+		PageRankNode node = new PageRankNode();
+		node.setContribution(0.25);
+
+		DataOutputBuffer out = write(node);
+		assertEquals(PageRankNode.CONTRIBUTION, out.getData()[0]);
+		assertEquals(1 + 8, out.getLength());
+
+		/// The record read into is reused, as Hadoop does, and held a structure before
+		PageRankNode reused = new PageRankNode();
+		reused.setStructure(2);
+		reused.addOutlink(4);
+		read(out, reused);
+		assertFalse(reused.isStructure());
+		assertEquals(0.25, reused.getRank(), 0);
+		assertEquals(0, reused.getOutlinkCount());
+		assertEquals(0, reused.getOutDegree());
+	}
+
+	@Test
+	public void rankRoundTrip() throws IOException {
+		PageRankNode node = new PageRankNode();
+		node.setPageRank(0.75, -0.125);
+
+		DataOutputBuffer out = write(node);
+		assertEquals(PageRankNode.RANK, out.getData()[0]);
+		assertEquals(1 + 8 + 8, out.getLength());
+		PageRankNode copy = read(out, new PageRankNode());
+		assertFalse(copy.isStructure());
+		assertEquals(0.75, copy.getRank(), 0);
+		assertEquals(-0.125, copy.getChange(), 0);
+		assertEquals(0, copy.getOutlinkCount());
+	}
+
+	/// Reading a structure with more outlinks than the reused record holds grows its array
+	@Test
+	public void readGrowsOutlinks() throws IOException {
+		PageRankNode node = new PageRankNode();
+		node.setStructure(1);
+		for (int i = 0; i < 50; i++)
+			node.addOutlink(i * 3);
+
+		PageRankNode reused = new PageRankNode();
+		read(write(node), reused);
+		assertEquals(50, reused.getOutlinkCount());
+		assertEquals(49 * 3, reused.getOutlink(49));
+	}
+}
@@ -0,0 +1,81 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PageRankSortingTest {
+
+	@Test
+	public void topPagesKeepsTheHighestRanks() {
+		int pages = 1000;
+		double[] ranks = new double[pages];
+		Random random = new Random(42);
+		for (int p = 0; p < pages; p++)
+			ranks[p] = random.nextDouble();
+
+		PageRankSorting.TopPages topPages = new PageRankSorting.TopPages(10);
+		for (int p = 0; p < pages; p++)
+			topPages.offer(ranks[p], p);
+
+		/// The page ids of the 10 highest ranks, in increasing order
+		double[] sorted = ranks.clone();
+		Arrays.sort(sorted);
+		int[] expected = new int[10];
+		int found = 0;
+		for (int p = 0; p < pages; p++)
+			if (ranks[p] >= sorted[pages - 10])
+				expected[found++] = p;
+		assertEquals(10, found);
+
+		assertArrayEquals(expected, topPages.pageIdsInOrder());
+		for (int pageId : expected)
+			assertEquals(ranks[pageId], topPages.rankOf(pageId), 0);
+	}
+
+	/// The ranks offered in ascending order each replace the root, the lowest rank kept
+	@Test
+	public void topPagesReplacesTheLowestRank() {
+		PageRankSorting.TopPages topPages = new PageRankSorting.TopPages(3);
+		for (int p = 0; p < 100; p++)
+			topPages.offer(p, p);
+		assertArrayEquals(new int[] { 97, 98, 99 }, topPages.pageIdsInOrder());
+	}
+
+	/// A rank equal to the lowest one kept does not replace it, so the page offered first stays
+	@Test
+	public void topPagesKeepsTheFirstOfEqualRanks() {
+		PageRankSorting.TopPages topPages = new PageRankSorting.TopPages(2);
+		topPages.offer(1, 5);
+		topPages.offer(2, 6);
+		topPages.offer(1, 7);
+		topPages.offer(0.5, 8);
+		assertArrayEquals(new int[] { 5, 6 }, topPages.pageIdsInOrder());
+	}
+
+	@Test
+	public void topPagesWithFewerPagesThanK() {
+		PageRankSorting.TopPages topPages = new PageRankSorting.TopPages(5);
+		topPages.offer(0.3, 9);
+		topPages.offer(0.1, 2);
+		topPages.offer(0.2, 4);
+		assertArrayEquals(new int[] { 2, 4, 9 }, topPages.pageIdsInOrder());
+		assertEquals(0.1, topPages.rankOf(2), 0);
+		assertEquals(0.3, topPages.rankOf(9), 0);
+	}
+
+	@Test
+	public void topPagesWithNoRoom() {
+		PageRankSorting.TopPages topPages = new PageRankSorting.TopPages(0);
+		topPages.offer(1, 1);
+		assertEquals(0, topPages.pageIdsInOrder().length);
+	}
+}
@@ -0,0 +1,65 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Test;
+
+public class RankExtrapolationTest {
+
+	private static final double D = 0.85;
+
+	/// Iterates converging geometrically, x(n) = limit + r^n, are taken to their limit in one step
+	@Test
+	public void geometricConvergence() {
+		assertEquals(2, RankExtrapolation.extrapolate(3, 2.5, 2.25, D), 1e-12);
+		assertEquals(1, RankExtrapolation.extrapolate(1 + 0.8 * 0.8, 1 + 0.8 * 0.8 * 0.8, 1 + 0.8 * 0.8 * 0.8 * 0.8, D), 1e-12);
+	}
+
+	/// An oscillation which shrinks within the damping factor is extrapolated too
+	@Test
+	public void oscillatingConvergence() {
+		assertEquals(2, RankExtrapolation.extrapolate(3, 1.5, 2.25, D), 1e-12);
+	}
+
+	@Test
+	public void noChangeIsKept() {
+		assertTrue(Double.isNaN(RankExtrapolation.extrapolate(1, 1, 1.5, D)));
+		assertTrue(Double.isNaN(RankExtrapolation.extrapolate(1, 1.5, 1.5, D)));
+	}
+
+	/// A ratio of 1 would divide by 1 - ratio = 0. It is above the damping factor, so the page keeps
+	/// its page rank, as with any ratio above it
+	@Test
+	public void denominatorGuard() {
+		assertTrue(Double.isNaN(RankExtrapolation.extrapolate(1, 2, 3, D)));
+		assertTrue(Double.isNaN(RankExtrapolation.extrapolate(1, 2, 3, 1)));
+		assertTrue(Double.isNaN(RankExtrapolation.extrapolate(1, 2, 2.9, D)));
+		assertTrue(Double.isNaN(RankExtrapolation.extrapolate(1, 2, 0.5, D)));
+	}
+
+	@Test
+	public void ratioAtTheDampingFactorIsTrusted() {
+		assertEquals(2.5 + 0.5 * 0.5 / 0.5, RankExtrapolation.extrapolate(1, 2, 2.5, 0.5), 1e-12);
+	}
+
+	@Test
+	public void nonPositiveLimitIsKept() {
+		assertTrue(Double.isNaN(RankExtrapolation.extrapolate(3, 1, 0, D)));
+	}
+
+	@Test
+	public void period() {
+		Configuration conf = new Configuration(false);
+		assertEquals(0, RankExtrapolation.getPeriod(conf));
+		conf.setInt(RankExtrapolation.PERIOD, 1);
+		assertEquals(RankExtrapolation.MIN_PERIOD, RankExtrapolation.getPeriod(conf));
+		conf.setInt(RankExtrapolation.PERIOD, 10);
+		assertEquals(10, RankExtrapolation.getPeriod(conf));
+	}
+}
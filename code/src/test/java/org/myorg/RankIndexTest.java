@@ -0,0 +1,136 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/// Builds small indexes from part files written as the RankIndexMap reducers write them, and checks
+/// the lookups at the edges of their binary searches
+public class RankIndexTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final Configuration conf = new Configuration();
+
+	/// Titles in Text order, split over three part files of which the middle one is empty. Three
+	/// pages share the page rank 0.5 and two the page rank 0.25
+	private static final String[][] PARTS = {
+			{ "Apple", "Banana", "Cherry" },
+			{},
+			{ "Date", "Elder", "Fig", "Zürich", "東京" } };
+	private static final double[][] RANKS = {
+			{ 0.5, 0.25, 0.5 },
+			{},
+			{ 0.125, 0.5, 1.0, 0.25, 0.0625 } };
+
+	/// Titles in descending page rank order, equal page ranks in title order
+	private static final String[] BY_RANK = { "Fig", "Apple", "Cherry", "Elder", "Banana", "Zürich", "Date", "東京" };
+
+	private RankIndex build(String[][] parts, double[][] ranks) throws IOException {
+		Path sortedTitles = new Path(new File(folder.getRoot(), "sorted").getAbsolutePath());
+		for (int part = 0; part < parts.length; part++) {
+			SequenceFile.Writer writer = SequenceFile.createWriter(conf,
+					SequenceFile.Writer.file(new Path(sortedTitles, PageDictionary.partitionName(part))),
+					SequenceFile.Writer.keyClass(Text.class), SequenceFile.Writer.valueClass(DoubleWritable.class));
+			try {
+				for (int i = 0; i < parts[part].length; i++)
+					writer.append(new Text(parts[part][i]), new DoubleWritable(ranks[part][i]));
+			} finally {
+				writer.close();
+			}
+		}
+		File directory = new File(folder.getRoot(), "index");
+		RankIndex.build(conf, sortedTitles, parts.length, directory);
+		return RankIndex.open(directory);
+	}
+
+	@Test
+	public void titlesAndRanks() throws IOException {
+		RankIndex index = build(PARTS, RANKS);
+		assertEquals(8, index.size());
+		for (int part = 0; part < PARTS.length; part++) {
+			for (int i = 0; i < PARTS[part].length; i++) {
+				int position = index.find(PARTS[part][i]);
+				assertTrue(position >= 0);
+				assertEquals(PARTS[part][i], index.titleAt(position));
+				assertEquals(RANKS[part][i], index.getRank(PARTS[part][i]), 0);
+			}
+		}
+		assertEquals(0, index.find("Apple"));
+		assertEquals(7, index.find("東京"));
+	}
+
+	/// Titles before the first one, between two, after the last one, and prefixes and extensions
+	/// of existing titles are not found
+	@Test
+	public void absentTitles() throws IOException {
+		RankIndex index = build(PARTS, RANKS);
+		for (String title : new String[] { "", "A", "Aardvark", "App", "Apples", "Banana ", "Coconut", "Zurich", "Zürichsee", "東", "東京都", "￿" }) {
+			assertEquals(title, -1, index.find(title));
+			assertTrue(title, Double.isNaN(index.getRank(title)));
+		}
+	}
+
+	/// Pages with equal page ranks follow each other in title order, and a range bounded by their
+	/// page rank holds all of them
+	@Test
+	public void equalRanks() throws IOException {
+		RankIndex index = build(PARTS, RANKS);
+		for (int place = 0; place < BY_RANK.length; place++)
+			assertEquals(BY_RANK[place], index.titleAt(index.positionByRank(place)));
+
+		assertEquals(1, index.firstAtMost(0.5));
+		assertEquals(4, index.firstBelow(0.5));
+		assertEquals(4, index.firstAtMost(0.25));
+		assertEquals(6, index.firstBelow(0.25));
+		assertEquals(0, index.firstAtMost(1.0));
+		assertEquals(1, index.firstBelow(1.0));
+		assertEquals(7, index.firstAtMost(0.0625));
+		assertEquals(8, index.firstBelow(0.0625));
+	}
+
+	/// Bounds between two page ranks, above the highest one and below the lowest one
+	@Test
+	public void rangeBounds() throws IOException {
+		RankIndex index = build(PARTS, RANKS);
+		assertEquals(4, index.firstAtMost(0.3));
+		assertEquals(4, index.firstBelow(0.3));
+
+		assertEquals(0, index.firstAtMost(2.0));
+		assertEquals(0, index.firstBelow(2.0));
+		assertEquals(0, index.firstAtMost(Double.POSITIVE_INFINITY));
+
+		assertEquals(8, index.firstAtMost(0.01));
+		assertEquals(8, index.firstBelow(0.01));
+		assertEquals(8, index.firstBelow(0));
+
+		/// A range covering every page
+		assertEquals(0, index.firstAtMost(1.0));
+		assertEquals(8, index.firstBelow(0.0625));
+	}
+
+	@Test
+	public void emptyIndex() throws IOException {
+		RankIndex index = build(new String[][] { {} }, new double[][] { {} });
+		assertEquals(0, index.size());
+		assertEquals(-1, index.find("Apple"));
+		assertEquals(0, index.firstAtMost(0.5));
+		assertEquals(0, index.firstBelow(0.5));
+	}
+}
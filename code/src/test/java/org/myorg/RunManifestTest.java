@@ -0,0 +1,119 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RunManifestTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private FileSystem fs;
+	private Path intermediatePath;
+
+	@Before
+	public void setUp() throws IOException {
+		fs = FileSystem.getLocal(new Configuration());
+		intermediatePath = new Path(folder.getRoot().getAbsolutePath());
+	}
+
+	@Test
+	public void noManifest() throws IOException {
+		RunManifest manifest = new RunManifest(fs, intermediatePath);
+		assertFalse(manifest.load());
+		assertEquals("", manifest.getStage());
+		assertEquals(0, manifest.getIteration());
+		assertFalse(manifest.hasCompleted(RunManifest.GRAPH_LINK_STAGE));
+	}
+
+	/// Saves the stages as the driver does, and resumes from a new manifest
+	@Test
+	public void resumeFromTheLastCompletedIteration() throws IOException {
+		RunManifest manifest = new RunManifest(fs, intermediatePath);
+		manifest.set("noOfPages", 2000);
+		manifest.set(PageDictionary.OFFSETS, "0,1000,2000");
+		manifest.save(RunManifest.GRAPH_LINK_STAGE, "input", "graph_link");
+		manifest.save(RunManifest.PAGE_DICTIONARY_STAGE, "graph_link", "graph");
+		for (int i = 1; i <= 3; i++) {
+			manifest.set("iteration", i);
+			manifest.set("converged", false);
+			manifest.save(RunManifest.ITERATION_STAGE, "iteration_" + (i - 1), "iteration_" + i);
+		}
+
+		RunManifest resumed = new RunManifest(fs, intermediatePath);
+		assertTrue(resumed.load());
+		assertEquals(RunManifest.ITERATION_STAGE, resumed.getStage());
+		assertEquals(3, resumed.getIteration());
+		assertFalse(resumed.isConverged());
+		assertEquals("iteration_3", resumed.get("stage.output"));
+		assertEquals("2000", resumed.get("noOfPages"));
+		assertEquals("0,1000,2000", resumed.get(PageDictionary.OFFSETS));
+		assertTrue(resumed.hasCompleted(RunManifest.GRAPH_LINK_STAGE));
+		assertTrue(resumed.hasCompleted(RunManifest.PAGE_DICTIONARY_STAGE));
+		assertTrue(resumed.hasCompleted(RunManifest.ITERATION_STAGE));
+
+		/// The temporary file is renamed over the manifest
+		assertFalse(fs.exists(new Path(intermediatePath, RunManifest.FILE_NAME + ".tmp")));
+	}
+
+	@Test
+	public void resumeAfterTheGraphLinkStage() throws IOException {
+		new RunManifest(fs, intermediatePath).save(RunManifest.GRAPH_LINK_STAGE, "input", "graph_link");
+
+		RunManifest resumed = new RunManifest(fs, intermediatePath);
+		assertTrue(resumed.load());
+		assertTrue(resumed.hasCompleted(RunManifest.GRAPH_LINK_STAGE));
+		assertFalse(resumed.hasCompleted(RunManifest.PAGE_DICTIONARY_STAGE));
+		assertFalse(resumed.hasCompleted(RunManifest.ITERATION_STAGE));
+		assertFalse(resumed.hasCompleted("unknown"));
+		assertEquals(0, resumed.getIteration());
+	}
+
+	@Test
+	public void convergedRun() throws IOException {
+		RunManifest manifest = new RunManifest(fs, intermediatePath);
+		manifest.set("iteration", 12);
+		manifest.set("converged", true);
+		manifest.save(RunManifest.ITERATION_STAGE, "iteration_11", "iteration_12");
+
+		RunManifest resumed = new RunManifest(fs, intermediatePath);
+		assertTrue(resumed.load());
+		assertEquals(12, resumed.getIteration());
+		assertTrue(resumed.isConverged());
+	}
+
+	/// A parameter which changed since the earlier run can not be resumed, a new one can
+	@Test
+	public void checkParameters() throws IOException {
+		RunManifest manifest = new RunManifest(fs, intermediatePath);
+		manifest.set("input", "/data/a");
+		manifest.save(RunManifest.GRAPH_LINK_STAGE, "/data/a", "graph_link");
+
+		RunManifest resumed = new RunManifest(fs, intermediatePath);
+		resumed.load();
+		resumed.check("input", "/data/a");
+		resumed.check("pagerank.iteration.mode", "schimmy");
+		try {
+			resumed.check("input", "/data/b");
+			fail("a changed input can not be resumed");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().contains("input was /data/a"));
+		}
+	}
+}
@@ -0,0 +1,184 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.io.WritableUtils;
+import org.apache.hadoop.mapred.RawKeyValueIterator;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.StatusReporter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.TaskType;
+import org.apache.hadoop.mapreduce.lib.reduce.WrappedReducer;
+import org.apache.hadoop.mapreduce.task.ReduceContextImpl;
+import org.apache.hadoop.util.Progress;
+
+/// TaskContexts builds the Reducer context handed to the reduce functions in the tests. It is the
+/// context Hadoop itself uses, built without a running job as in the benchmarks: every record written
+/// is copied into an Output, and the counters are kept in the given Counters. The reduce functions
+/// are called directly, so the context has no input of its own.
+class TaskContexts {
+
+	private TaskContexts() {
+	}
+
+	static <KI extends WritableComparable<?>, VI, KO extends Writable, VO extends Writable> Reducer<KI, VI, KO, VO>.Context
+			reduceContext(Configuration conf, Output<KO, VO> output, Counters counters, Class<KI> keyClass, Class<VI> valueClass)
+			throws IOException, InterruptedException {
+		CounterReporter reporter = new CounterReporter(counters);
+		ReduceContextImpl<KI, VI, KO, VO> context = new ReduceContextImpl<KI, VI, KO, VO>(conf,
+				new TaskAttemptID("test", 0, TaskType.REDUCE, 0, 0), new EmptyIterator(),
+				reporter.getCounter("test", "input keys"), reporter.getCounter("test", "input values"),
+				output, null, reporter, WritableComparator.get(keyClass, conf), keyClass, valueClass);
+		return new WrappedReducer<KI, VI, KO, VO>().getReducerContext(context);
+	}
+
+	/// The values in the order given, read one after the other into the same object, as Hadoop hands
+	/// them to a reducer
+	static <V extends Writable> Iterable<V> reused(V reusedValue, List<V> values) throws IOException {
+		List<byte[]> records = new ArrayList<byte[]>();
+		for (V value : values) {
+			DataOutputBuffer out = new DataOutputBuffer();
+			value.write(out);
+			records.add(Arrays.copyOf(out.getData(), out.getLength()));
+		}
+		return new ReusedValues<V>(reusedValue, records);
+	}
+
+	/// Copies of the records written by a task, in the order written
+	static class Output<K extends Writable, V extends Writable> extends RecordWriter<K, V> {
+
+		private final Configuration conf;
+		final List<K> keys = new ArrayList<K>();
+		final List<V> values = new ArrayList<V>();
+
+		Output(Configuration conf) {
+			this.conf = conf;
+		}
+
+		@Override
+		public void write(K key, V value) {
+			keys.add(WritableUtils.clone(key, conf));
+			values.add(WritableUtils.clone(value, conf));
+		}
+
+		@Override
+		public void close(TaskAttemptContext context) {
+		}
+	}
+
+	/// Reads every serialized record into the same object when the iteration reaches it
+	private static class ReusedValues<V extends Writable> implements Iterable<V> {
+
+		private final V value;
+		private final List<byte[]> records;
+
+		ReusedValues(V value, List<byte[]> records) {
+			this.value = value;
+			this.records = records;
+		}
+
+		@Override
+		public Iterator<V> iterator() {
+			final DataInputBuffer in = new DataInputBuffer();
+			return new Iterator<V>() {
+
+				private int next;
+
+				@Override
+				public boolean hasNext() {
+					return next < records.size();
+				}
+
+				@Override
+				public V next() {
+					byte[] record = records.get(next++);
+					in.reset(record, record.length);
+					try {
+						value.readFields(in);
+					} catch (IOException e) {
+						throw new IllegalStateException(e);
+					}
+					return value;
+				}
+			};
+		}
+	}
+
+	/// Keeps the counters incremented by the task in memory
+	private static class CounterReporter extends StatusReporter {
+
+		private final Counters counters;
+
+		CounterReporter(Counters counters) {
+			this.counters = counters;
+		}
+
+		@Override
+		public Counter getCounter(Enum<?> name) {
+			return counters.findCounter(name);
+		}
+
+		@Override
+		public Counter getCounter(String group, String name) {
+			return counters.findCounter(group, name);
+		}
+
+		@Override
+		public void progress() {
+		}
+
+		@Override
+		public float getProgress() {
+			return 0;
+		}
+
+		@Override
+		public void setStatus(String status) {
+		}
+	}
+
+	private static class EmptyIterator implements RawKeyValueIterator {
+
+		@Override
+		public DataInputBuffer getKey() {
+			return null;
+		}
+
+		@Override
+		public DataInputBuffer getValue() {
+			return null;
+		}
+
+		@Override
+		public boolean next() {
+			return false;
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public Progress getProgress() {
+			return new Progress();
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/// Author: Ashwin Venkatesh Prabhu
+/// UNCC ID: 800960400
+/// Email: avenka11@uncc.edu
+
+package org.myorg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.bzip2.CBZip2OutputStream;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/// Writes a small dump and reads it with many split sizes, so that <page> tags, pages and bzip2
+/// blocks fall on every side of the split boundaries. Every page has to be read by exactly one split
+public class WikiPageInputFormatTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/// The <page> elements of the dump, in order, their place in it and their offsets in the
+	/// uncompressed file
+	private final List<String> pages = new ArrayList<String>();
+	private final Map<String, Integer> pageIndex = new HashMap<String, Integer>();
+	private final List<Long> offsets = new ArrayList<Long>();
+
+	/// A dump with a header, pages of a few bytes to a few KB spread over several lines, text holding
+	/// '<' and parts of the tags, and a footer
+	private byte[] dump(int noOfPages) {
+		Random random = new Random(7);
+		StringBuilder sb = new StringBuilder("<mediawiki>\n  <siteinfo><sitename>Test</sitename></siteinfo>\n");
+		long offset = sb.length();
+		for (int p = 0; p < noOfPages; p++) {
+			StringBuilder page = new StringBuilder("<page>\n    <title>Page").append(p).append("</title>\n");
+			page.append("    <revision><text xml:space=\"preserve\">");
+			int links = random.nextInt(p % 10 == 0 ? 300 : 20);
+			for (int l = 0; l < links; l++) {
+				page.append("[[Page").append(random.nextInt(noOfPages)).append("]]");
+				page.append(random.nextInt(4) == 0 ? "\n" : random.nextInt(3) == 0 ? " a < b <pag <page " : " ");
+			}
+			page.append("</text></revision>\n  </page>");
+
+			/// The dump is ASCII, so the offsets are counted in chars
+			sb.append("  ");
+			offsets.add(offset + 2);
+			offset += 2 + page.length() + 1;
+			pageIndex.put(page.toString(), pages.size());
+			pages.add(page.toString());
+			sb.append(page).append("\n");
+		}
+		sb.append("</mediawiki>\n");
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/// Reads every split of the file, with splits of at most the given size, and returns the number of
+	/// times every page was read. The pages have to be read whole
+	private Map<String, Integer> read(File file, long splitSize, boolean checkOffsets) throws Exception {
+		Configuration conf = new Configuration();
+		Job job = Job.getInstance(conf);
+		FileInputFormat.addInputPath(job, new Path(file.getAbsolutePath()));
+		FileInputFormat.setMinInputSplitSize(job, 1);
+		FileInputFormat.setMaxInputSplitSize(job, splitSize);
+		WikiPageInputFormat format = new WikiPageInputFormat();
+		List<InputSplit> splits = format.getSplits(job);
+		assertTrue("the file is split", splits.size() >= Math.min(2, file.length() / splitSize));
+
+		Map<String, Integer> reads = new HashMap<String, Integer>();
+		for (InputSplit split : splits) {
+			WikiPageInputFormat.WikiPageRecordReader reader = new WikiPageInputFormat.WikiPageRecordReader();
+			reader.initialize(split, new TaskAttemptContextImpl(job.getConfiguration(), new TaskAttemptID()));
+			try {
+				while (reader.nextKeyValue()) {
+					String page = reader.getCurrentValue().toString();
+					Integer index = pageIndex.get(page);
+					assertTrue("a whole page is read", index != null);
+					if (checkOffsets)
+						assertEquals(offsets.get(index).longValue(), reader.getCurrentKey().get());
+					Integer count = reads.get(page);
+					reads.put(page, count == null ? 1 : count + 1);
+				}
+			} finally {
+				reader.close();
+			}
+		}
+		return reads;
+	}
+
+	private void assertEveryPageOnce(Map<String, Integer> reads, long splitSize) {
+		assertEquals("pages read with splits of " + splitSize + " bytes", pages.size(), reads.size());
+		for (Map.Entry<String, Integer> read : reads.entrySet())
+			assertEquals("reads of a page with splits of " + splitSize + " bytes", 1, read.getValue().intValue());
+	}
+
+	@Test
+	public void plainDump() throws Exception {
+		File file = new File(folder.getRoot(), "dump.xml");
+		byte[] bytes = dump(60);
+		OutputStream out = new FileOutputStream(file);
+		try {
+			out.write(bytes);
+		} finally {
+			out.close();
+		}
+
+		/// Splits of a few bytes start and end inside the tags, and the others inside the pages
+		for (long splitSize : new long[] { 5, 64, 333, 1000, 4096, bytes.length })
+			assertEveryPageOnce(read(file, splitSize, true), splitSize);
+	}
+
+	/// The dump is compressed in blocks of 100 KB, the smallest bzip2 allows, so that it holds several
+	/// blocks and pages which cross them. BZip2Codec writes the "BZ" magic before the stream
+	@Test
+	public void bzip2Dump() throws Exception {
+		File file = new File(folder.getRoot(), "dump.xml.bz2");
+		byte[] bytes = dump(2000);
+		OutputStream out = new FileOutputStream(file);
+		try {
+			out.write("BZ".getBytes(StandardCharsets.US_ASCII));
+			CBZip2OutputStream bzip2 = new CBZip2OutputStream(out, 1);
+			bzip2.write(bytes);
+			bzip2.finish();
+		} finally {
+			out.close();
+		}
+		assertTrue("the dump holds several blocks", bytes.length > 4 * 100000);
+
+		for (long splitSize : new long[] { 4000, 9999, 30000, 77777, file.length() })
+			assertEveryPageOnce(read(file, splitSize, false), splitSize);
+	}
+}